@@ -0,0 +1,414 @@
+package org.checkerframework.flexeme.bench;
+
+import org.checkerframework.flexeme.DotPrinter;
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.metrics.ExtractionMetrics;
+import org.checkerframework.flexeme.metrics.Phase;
+import org.checkerframework.flexeme.metrics.PhaseMeasurement;
+import org.checkerframework.flexeme.metrics.PhaseTimer;
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.FilePdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Extracts the PDGs of every file of a corpus, e.g., a checked out Defects4J project, with a number of workers and
+ * reports the throughput and the latency of the extraction.
+ * <p>
+ * Each worker has its own {@link PdgExtractor} and {@link PdgBuilder} and takes the files one at a time from a shared
+ * queue. A file is compiled in memory, its PDGs are built, frozen and formatted in DOT, but nothing is written. The
+ * latency of a file covers all of this; its phases are measured with an {@link ExtractionMetrics}, so the slowest
+ * files can be reported with their breakdown. The peak heap is the sum of the peaks of the heap memory pools during
+ * the run, and the GC time is the collection time of all the collectors during the run.
+ */
+public class CorpusRunner {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusRunner.class);
+
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int slowest = 10;
+    private String sourcePath = "";
+    private String classPath = "";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        CorpusRunner runner = new CorpusRunner();
+        List<String> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                final String option = args[i];
+                if (!option.startsWith("--")) {
+                    inputs.add(option);
+                    continue;
+                }
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                final String value = args[++i];
+                switch (option) {
+                    case "--workers":
+                        runner.setWorkers(Integer.parseInt(value));
+                        break;
+                    case "--slowest":
+                        runner.setSlowest(Integer.parseInt(value));
+                        break;
+                    case "--source-path":
+                        runner.setSourcePath(value);
+                        break;
+                    case "--class-path":
+                        runner.setClassPath(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("No input");
+            }
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            logger.error("Usage: java CorpusRunner [--workers n] [--slowest n] [--source-path p] [--class-path p] <directory|file|file list>...");
+            System.exit(1);
+            return;
+        }
+
+        Result result = runner.run(listFiles(inputs));
+        result.print(System.out);
+        if (result.getFailures() > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sets the number of files extracted at the same time. Defaults to the number of processors.
+     *
+     * @param workers the number of workers, at least 1
+     */
+    public void setWorkers(final int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed");
+        }
+        this.workers = workers;
+    }
+
+    /**
+     * Sets how many of the slowest files are reported.
+     *
+     * @param slowest the number of files
+     */
+    public void setSlowest(final int slowest) {
+        this.slowest = slowest;
+    }
+
+    public void setSourcePath(final String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    public void setClassPath(final String classPath) {
+        this.classPath = classPath;
+    }
+
+    /**
+     * Lists the Java files of the inputs. A directory gives all the {@code .java} files below it, a {@code .java} file
+     * gives itself, and any other file is read as a list of paths, one per line.
+     *
+     * @param inputs the directories, files and file lists
+     * @return the paths of the Java files, sorted within each input
+     * @throws IOException if a directory or a list cannot be read
+     */
+    public static List<String> listFiles(final List<String> inputs) throws IOException {
+        final List<String> files = new ArrayList<>();
+        for (final String input : inputs) {
+            final Path path = Paths.get(input);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> walk = Files.walk(path)) {
+                    files.addAll(walk.filter(file -> file.toString().endsWith(".java") && Files.isRegularFile(file))
+                            .map(Path::toString).sorted().collect(Collectors.toList()));
+                }
+            } else if (input.endsWith(".java")) {
+                files.add(input);
+            } else {
+                for (final String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                    if (!line.trim().isEmpty()) {
+                        files.add(line.trim());
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Extracts the PDGs of the files and measures the run. A file that fails to compile or to analyze is logged,
+     * counted as a failure and left out of the latencies.
+     *
+     * @param files the files to extract
+     * @return the measurements of the run
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public Result run(final List<String> files) throws InterruptedException {
+        final Queue<String> queue = new ConcurrentLinkedQueue<>(files);
+        final long[] latencies = new long[files.size()];
+        final AtomicInteger measured = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final PriorityQueue<FileResult> slowestFiles = new PriorityQueue<>(Comparator.comparingLong(FileResult::getLatencyNanos));
+
+        final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP).collect(Collectors.toList());
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        final long gcTimeBefore = gcTime();
+        final long start = System.nanoTime();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    final Worker worker = new Worker();
+                    String file;
+                    while ((file = queue.poll()) != null) {
+                        final FileResult result;
+                        try {
+                            result = worker.extract(file);
+                        } catch (RuntimeException e) {
+                            logger.error("Extraction failed for file: " + file, e);
+                            failures.incrementAndGet();
+                            continue;
+                        }
+                        latencies[measured.getAndIncrement()] = result.getLatencyNanos();
+                        synchronized (slowestFiles) {
+                            slowestFiles.add(result);
+                            if (slowestFiles.size() > slowest) {
+                                slowestFiles.poll();
+                            }
+                        }
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Worker failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final long wallNanos = System.nanoTime() - start;
+        long peakHeap = 0;
+        for (final MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        final List<FileResult> slowestList = new ArrayList<>(slowestFiles);
+        slowestList.sort(Comparator.comparingLong(FileResult::getLatencyNanos).reversed());
+        final long[] sorted = Arrays.copyOf(latencies, measured.get());
+        Arrays.sort(sorted);
+        return new Result(workers, sorted, failures.get(), wallNanos, peakHeap, gcTime() - gcTimeBefore, slowestList);
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * The extraction state of a worker thread.
+     */
+    private class Worker {
+        private final PdgExtractor extractor = new PdgExtractor(true);
+        private final PdgBuilder builder = new PdgBuilder();
+        private final DotPrinter printer = new DotPrinter();
+
+        @SuppressWarnings("try")
+        FileResult extract(final String file) {
+            final ExtractionMetrics metrics = new ExtractionMetrics(List.of(file));
+            extractor.setMetrics(metrics);
+            builder.setMetrics(metrics);
+            final long start = System.nanoTime();
+            try {
+                final FileProcessor processor = extractor.compileFile(file, null, false, sourcePath, classPath);
+                // The builder records its own phases, the freezing is timed alone.
+                final FilePdg filePdg = builder.buildPdgForFile(processor);
+                final CompactFilePdg snapshot;
+                try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.FREEZE)) {
+                    snapshot = filePdg.freeze();
+                }
+                try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.OUTPUT)) {
+                    printer.printDot(snapshot);
+                }
+            } finally {
+                extractor.setMetrics(null);
+                builder.setMetrics(null);
+            }
+            return new FileResult(file, System.nanoTime() - start, metrics);
+        }
+    }
+
+    /**
+     * The latency of the extraction of a file, with its phases.
+     */
+    public static final class FileResult {
+        private final String file;
+        private final long latencyNanos;
+        private final ExtractionMetrics metrics;
+
+        FileResult(final String file, final long latencyNanos, final ExtractionMetrics metrics) {
+            this.file = file;
+            this.latencyNanos = latencyNanos;
+            this.metrics = metrics;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        public ExtractionMetrics getMetrics() {
+            return metrics;
+        }
+    }
+
+    /**
+     * The measurements of a run over a corpus.
+     */
+    public static final class Result {
+        private final int workers;
+        private final long[] latencies;
+        private final int failures;
+        private final long wallNanos;
+        private final long peakHeapBytes;
+        private final long gcMillis;
+        private final List<FileResult> slowest;
+
+        Result(final int workers, final long[] latencies, final int failures, final long wallNanos,
+               final long peakHeapBytes, final long gcMillis, final List<FileResult> slowest) {
+            this.workers = workers;
+            this.latencies = latencies;
+            this.failures = failures;
+            this.wallNanos = wallNanos;
+            this.peakHeapBytes = peakHeapBytes;
+            this.gcMillis = gcMillis;
+            this.slowest = slowest;
+        }
+
+        /**
+         * Returns the number of files extracted successfully.
+         *
+         * @return the number of files
+         */
+        public int getFiles() {
+            return latencies.length;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * Returns the number of files extracted per second of the run, failures excluded.
+         *
+         * @return the throughput
+         */
+        public double getFilesPerSecond() {
+            return wallNanos == 0 ? 0 : latencies.length * 1e9 / wallNanos;
+        }
+
+        /**
+         * Returns a percentile of the latencies of the files, by the nearest-rank method.
+         *
+         * @param percentile the percentile, from 0 exclusive to 100
+         * @return the latency in nanoseconds, or 0 if no file was extracted
+         */
+        public long getLatencyPercentile(final double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            final int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+            return latencies[Math.max(0, Math.min(latencies.length, rank) - 1)];
+        }
+
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        public long getGcMillis() {
+            return gcMillis;
+        }
+
+        /**
+         * Returns the slowest files, the slowest first.
+         *
+         * @return the slowest files
+         */
+        public List<FileResult> getSlowest() {
+            return slowest;
+        }
+
+        /**
+         * Prints the summary of the run and the phases of the slowest files, in milliseconds.
+         *
+         * @param out the output
+         */
+        public void print(final PrintStream out) {
+            out.printf(Locale.ROOT, "files: %d, failures: %d, workers: %d, elapsed: %.2f s, files/s: %.2f%n",
+                    getFiles(), failures, workers, wallNanos / 1e9, getFilesPerSecond());
+            out.printf(Locale.ROOT, "latency ms: p50 %.2f, p95 %.2f, p99 %.2f, max %.2f%n",
+                    getLatencyPercentile(50) / 1e6, getLatencyPercentile(95) / 1e6,
+                    getLatencyPercentile(99) / 1e6, getLatencyPercentile(100) / 1e6);
+            out.printf(Locale.ROOT, "peak heap: %.1f MiB, GC time: %d ms%n", peakHeapBytes / (1024.0 * 1024.0), gcMillis);
+            if (slowest.isEmpty()) {
+                return;
+            }
+            out.println("slowest files:");
+            for (final FileResult file : slowest) {
+                out.printf(Locale.ROOT, "%10.2f  %s%n", file.getLatencyNanos() / 1e6, file.getFile());
+                final StringBuilder phases = new StringBuilder();
+                for (final Phase phase : Phase.values()) {
+                    final PhaseMeasurement measurement = file.getMetrics().get(phase);
+                    if (measurement != null) {
+                        phases.append(String.format(Locale.ROOT, " %s %.2f", phase, measurement.getWallNanos() / 1e6));
+                    }
+                }
+                out.println("           " + phases);
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.checkerframework.flexeme.bench;
+
+import org.checkerframework.flexeme.DotPrinter;
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.metrics.ExtractionMetrics;
+import org.checkerframework.flexeme.metrics.Phase;
+import org.checkerframework.flexeme.metrics.PhaseMeasurement;
+import org.checkerframework.flexeme.metrics.PhaseTimer;
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.FilePdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Measures how each phase of the extraction scales with one parameter of the {@link SyntheticMethodGenerator}.
+ * <p>
+ * For each size, the harness generates a method, then compiles it in memory and builds its PDG with
+ * {@link PdgBuilder#buildPdgForFile(FileProcessor)} a few times, keeping the fastest wall time of each phase.
+ * The growth exponent of a phase is the slope of the least-squares line through the points
+ * {@code (log size, log time)}: about 1 for a linear phase, 2 for a quadratic one.
+ */
+public class ScalingHarness {
+    private static final Logger logger = LoggerFactory.getLogger(ScalingHarness.class);
+    private static final Phase[] PHASES = {Phase.COMPILE, Phase.CFG, Phase.ELEMENTS, Phase.CONTROL, Phase.DATAFLOW,
+            Phase.NAMEFLOW, Phase.CALLS, Phase.FREEZE, Phase.OUTPUT};
+
+    private final SyntheticMethodGenerator generator;
+    private final Path directory;
+    private final PdgExtractor extractor = new PdgExtractor(true);
+    private final PdgBuilder builder = new PdgBuilder();
+    private final DotPrinter printer = new DotPrinter();
+    private int repetitions = 3;
+
+    /**
+     * @param generator the generator of the methods, whose parameters other than the scaled one stay as they are
+     * @param directory where to write the generated files
+     */
+    public ScalingHarness(final SyntheticMethodGenerator generator, final Path directory) {
+        this.generator = generator;
+        this.directory = directory;
+    }
+
+    public static void main(String[] args) throws IOException {
+        SyntheticMethodGenerator generator = new SyntheticMethodGenerator();
+        Dimension dimension = Dimension.STATEMENTS;
+        int[] sizes = {250, 500, 1000, 2000, 4000};
+        int repetitions = 3;
+        double maxExponent = Double.POSITIVE_INFINITY;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                final String option = args[i];
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                final String value = args[++i];
+                switch (option) {
+                    case "--dimension":
+                        dimension = Dimension.valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+                        break;
+                    case "--sizes":
+                        sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                        break;
+                    case "--repetitions":
+                        repetitions = Integer.parseInt(value);
+                        break;
+                    case "--max-exponent":
+                        maxExponent = Double.parseDouble(value);
+                        break;
+                    case "--statements":
+                        generator.setStatements(Integer.parseInt(value));
+                        break;
+                    case "--loop-depth":
+                        generator.setLoopDepth(Integer.parseInt(value));
+                        break;
+                    case "--branch-fan-out":
+                        generator.setBranchFanOut(Integer.parseInt(value));
+                        break;
+                    case "--live-variables":
+                        generator.setLiveVariables(Integer.parseInt(value));
+                        break;
+                    case "--try-catch-density":
+                        generator.setTryCatchDensity(Double.parseDouble(value));
+                        break;
+                    case "--switch-cases":
+                        generator.setSwitchCases(Integer.parseInt(value));
+                        break;
+                    case "--seed":
+                        generator.setSeed(Long.parseLong(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            logger.error("Usage: java ScalingHarness [--dimension statements|loop-depth|branch-fan-out|live-variables|switch-cases] [--sizes n,n,...] [--repetitions n] [--max-exponent x]");
+            logger.error("       [--statements n] [--loop-depth n] [--branch-fan-out n] [--live-variables n] [--try-catch-density p] [--switch-cases n] [--seed n]");
+            System.exit(1);
+            return;
+        }
+
+        ScalingHarness harness = new ScalingHarness(generator, Files.createTempDirectory("flexeme-scaling"));
+        harness.setRepetitions(repetitions);
+        Map<Phase, Double> exponents = harness.run(dimension, sizes, System.out);
+        for (final Map.Entry<Phase, Double> exponent : exponents.entrySet()) {
+            if (exponent.getValue() > maxExponent) {
+                logger.error(String.format(Locale.ROOT, "Phase %s grows with exponent %.2f, above %.2f", exponent.getKey(), exponent.getValue(), maxExponent));
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Sets how many times each size is measured, after one warm-up run. The fastest run is kept.
+     *
+     * @param repetitions the number of measured runs per size
+     */
+    public void setRepetitions(final int repetitions) {
+        this.repetitions = repetitions;
+    }
+
+    /**
+     * Measures the phases on methods of increasing size and fits their growth.
+     *
+     * @param dimension the parameter of the generator to scale
+     * @param sizes     the values of the parameter, at least two distinct ones
+     * @param out       where to print the table of the measurements, in milliseconds, and the exponents
+     * @return the growth exponent of each phase measured at every size
+     * @throws IOException if the generated files cannot be written
+     */
+    public Map<Phase, Double> run(final Dimension dimension, final int[] sizes, final PrintStream out) throws IOException {
+        final double[][] times = new double[PHASES.length][sizes.length];
+        for (int s = 0; s < sizes.length; s++) {
+            dimension.apply(generator, sizes[s]);
+            final Path file = generator.write(directory, "Synthetic" + s);
+            measure(file.toString()); // Warm-up.
+            for (final double[] phaseTimes : times) {
+                phaseTimes[s] = Double.POSITIVE_INFINITY;
+            }
+            for (int r = 0; r < repetitions; r++) {
+                final ExtractionMetrics metrics = measure(file.toString());
+                for (int p = 0; p < PHASES.length; p++) {
+                    final PhaseMeasurement measurement = metrics.get(PHASES[p]);
+                    final double time = measurement == null ? 0 : measurement.getWallNanos();
+                    times[p][s] = Math.min(times[p][s], time);
+                }
+            }
+        }
+
+        final double[] sizeValues = Arrays.stream(sizes).asDoubleStream().toArray();
+        final Map<Phase, Double> exponents = new EnumMap<>(Phase.class);
+        for (int p = 0; p < PHASES.length; p++) {
+            if (Arrays.stream(times[p]).allMatch(time -> time > 0)) {
+                exponents.put(PHASES[p], exponent(sizeValues, times[p]));
+            }
+        }
+
+        out.printf(Locale.ROOT, "%-14s", dimension.name().toLowerCase(Locale.ROOT));
+        for (final Phase phase : PHASES) {
+            out.printf(Locale.ROOT, "%10s", phase);
+        }
+        out.println();
+        for (int s = 0; s < sizes.length; s++) {
+            out.printf(Locale.ROOT, "%-14d", sizes[s]);
+            for (int p = 0; p < PHASES.length; p++) {
+                out.printf(Locale.ROOT, "%10.2f", times[p][s] / 1e6);
+            }
+            out.println();
+        }
+        out.printf(Locale.ROOT, "%-14s", "exponent");
+        for (final Phase phase : PHASES) {
+            final Double exponent = exponents.get(phase);
+            out.printf(Locale.ROOT, "%10s", exponent == null ? "-" : String.format(Locale.ROOT, "%.2f", exponent));
+        }
+        out.println();
+        return exponents;
+    }
+
+    @SuppressWarnings("try")
+    private ExtractionMetrics measure(final String file) {
+        final ExtractionMetrics metrics = new ExtractionMetrics(List.of(file));
+        extractor.setMetrics(metrics);
+        builder.setMetrics(metrics);
+        try {
+            final FileProcessor processor = extractor.compileFile(file, null, false, "", "");
+            final FilePdg filePdg = builder.buildPdgForFile(processor);
+            final CompactFilePdg snapshot;
+            try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.FREEZE)) {
+                snapshot = filePdg.freeze();
+            }
+            try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.OUTPUT)) {
+                printer.printDot(snapshot);
+            }
+        } finally {
+            extractor.setMetrics(null);
+            builder.setMetrics(null);
+        }
+        return metrics;
+    }
+
+    /**
+     * Fits {@code value = c * size^k} by least squares on the logarithms and returns {@code k}.
+     *
+     * @param sizes  the sizes, positive
+     * @param values the values measured at each size, positive
+     * @return the growth exponent
+     */
+    public static double exponent(final double[] sizes, final double[] values) {
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            meanX += Math.log(sizes[i]);
+            meanY += Math.log(values[i]);
+        }
+        meanX /= sizes.length;
+        meanY /= sizes.length;
+
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            final double x = Math.log(sizes[i]) - meanX;
+            covariance += x * (Math.log(values[i]) - meanY);
+            variance += x * x;
+        }
+        if (variance == 0) {
+            throw new IllegalArgumentException("The sizes must not all be equal");
+        }
+        return covariance / variance;
+    }
+
+    /**
+     * The parameters of the {@link SyntheticMethodGenerator} the harness can scale.
+     */
+    public enum Dimension {
+        STATEMENTS, LOOP_DEPTH, BRANCH_FAN_OUT, LIVE_VARIABLES, SWITCH_CASES;
+
+        void apply(final SyntheticMethodGenerator generator, final int size) {
+            switch (this) {
+                case STATEMENTS:
+                    generator.setStatements(size);
+                    break;
+                case LOOP_DEPTH:
+                    generator.setLoopDepth(size);
+                    break;
+                case BRANCH_FAN_OUT:
+                    generator.setBranchFanOut(size);
+                    break;
+                case LIVE_VARIABLES:
+                    generator.setLiveVariables(size);
+                    break;
+                default:
+                    generator.setSwitchCases(size);
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.checkerframework.flexeme.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a valid Java class with one method whose shape is controlled by the parameters, to measure how the
+ * extraction scales with each of them.
+ * <p>
+ * The method declares its live variables first, then emits chunks of assignments between them. Each chunk is either
+ * plain assignments, an if/else-if chain, a loop nest or a switch, chosen at random among the enabled structures, and
+ * may be wrapped in a try/catch. The statement count is the number of assignments, so the structures do not change
+ * the size of the method much. The same parameters and seed always give the same source.
+ */
+public class SyntheticMethodGenerator {
+    private static final int CHUNK = 4;
+
+    private int statements = 100;
+    private int loopDepth = 0;
+    private int branchFanOut = 0;
+    private int liveVariables = 8;
+    private double tryCatchDensity = 0;
+    private int switchCases = 0;
+    private long seed = 42;
+
+    /**
+     * Sets the number of assignments in the method.
+     *
+     * @param statements the number of statements
+     */
+    public void setStatements(final int statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * Sets the depth of the loop nests, or 0 for no loops.
+     *
+     * @param loopDepth the number of nested loops around the assignments of a loop chunk
+     */
+    public void setLoopDepth(final int loopDepth) {
+        this.loopDepth = loopDepth;
+    }
+
+    /**
+     * Sets the number of arms of the if/else-if chains, or 0 for no branches.
+     *
+     * @param branchFanOut the number of arms
+     */
+    public void setBranchFanOut(final int branchFanOut) {
+        this.branchFanOut = branchFanOut;
+    }
+
+    /**
+     * Sets the number of local variables read and written by the assignments, all live until the end of the method.
+     *
+     * @param liveVariables the number of variables, at least 1
+     */
+    public void setLiveVariables(final int liveVariables) {
+        if (liveVariables < 1) {
+            throw new IllegalArgumentException("The method needs at least one variable");
+        }
+        this.liveVariables = liveVariables;
+    }
+
+    /**
+     * Sets the probability of a chunk to be wrapped in a try/catch.
+     *
+     * @param tryCatchDensity the probability, from 0 to 1
+     */
+    public void setTryCatchDensity(final double tryCatchDensity) {
+        this.tryCatchDensity = tryCatchDensity;
+    }
+
+    /**
+     * Sets the number of cases of the switches, or 0 for no switches.
+     *
+     * @param switchCases the number of cases, default excluded
+     */
+    public void setSwitchCases(final int switchCases) {
+        this.switchCases = switchCases;
+    }
+
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Writes the generated class in a directory.
+     *
+     * @param directory the directory
+     * @param className the name of the class, also the name of the file
+     * @return the path of the file written
+     * @throws IOException if the file cannot be written
+     */
+    public Path write(final Path directory, final String className) throws IOException {
+        final Path file = directory.resolve(className + ".java");
+        Files.write(file, generate(className).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Generates the source of a class with one method {@code run(int, int)}.
+     *
+     * @param className the name of the class
+     * @return the source of the class
+     */
+    public String generate(final String className) {
+        return new Emitter(new Random(seed)).emitClass(className);
+    }
+
+    private enum Structure {
+        ASSIGNMENTS, BRANCHES, LOOPS, SWITCH
+    }
+
+    /**
+     * The state of one generation.
+     */
+    private class Emitter {
+        private final Random random;
+        private final StringBuilder out = new StringBuilder();
+        private final List<Structure> structures = new ArrayList<>();
+        private int loops = 0;
+
+        Emitter(final Random random) {
+            this.random = random;
+            structures.add(Structure.ASSIGNMENTS);
+            if (branchFanOut > 0) {
+                structures.add(Structure.BRANCHES);
+            }
+            if (loopDepth > 0) {
+                structures.add(Structure.LOOPS);
+            }
+            if (switchCases > 0) {
+                structures.add(Structure.SWITCH);
+            }
+        }
+
+        String emitClass(final String className) {
+            out.append("public class ").append(className).append(" {\n");
+            out.append("    public int run(int p0, int p1) {\n");
+            for (int i = 0; i < liveVariables; i++) {
+                line(2, "int v" + i + " = p" + (i % 2) + " + " + i + ";");
+            }
+
+            int emitted = 0;
+            while (emitted < statements) {
+                emitted += emitChunk(Math.min(CHUNK, statements - emitted));
+            }
+
+            line(2, "int result = 0;");
+            for (int i = 0; i < liveVariables; i++) {
+                line(2, "result += v" + i + ";");
+            }
+            line(2, "return result;");
+            out.append("    }\n");
+            out.append("}\n");
+            return out.toString();
+        }
+
+        /**
+         * Emits a chunk of about {@code count} assignments and returns the number of assignments emitted.
+         */
+        private int emitChunk(final int count) {
+            final boolean tryCatch = tryCatchDensity > 0 && random.nextDouble() < tryCatchDensity;
+            int indent = 2;
+            if (tryCatch) {
+                line(indent++, "try {");
+            }
+
+            int emitted;
+            switch (structures.get(random.nextInt(structures.size()))) {
+                case BRANCHES:
+                    emitted = emitBranches(indent);
+                    break;
+                case LOOPS:
+                    emitted = emitLoops(indent, count);
+                    break;
+                case SWITCH:
+                    emitted = emitSwitch(indent);
+                    break;
+                default:
+                    for (int i = 0; i < count; i++) {
+                        emitAssignment(indent);
+                    }
+                    emitted = count;
+            }
+
+            if (tryCatch) {
+                line(indent - 1, "} catch (ArithmeticException e) {");
+                emitAssignment(indent);
+                line(indent - 1, "}");
+                emitted++;
+            }
+            return emitted;
+        }
+
+        private int emitBranches(final int indent) {
+            final String variable = variable();
+            for (int arm = 0; arm < branchFanOut; arm++) {
+                if (arm == 0) {
+                    line(indent, "if (" + variable + " > " + random.nextInt(100) + ") {");
+                } else if (arm < branchFanOut - 1) {
+                    line(indent, "} else if (" + variable + " > " + random.nextInt(100) + ") {");
+                } else {
+                    line(indent, "} else {");
+                }
+                emitAssignment(indent + 1);
+            }
+            line(indent, "}");
+            return branchFanOut;
+        }
+
+        private int emitLoops(final int indent, final int count) {
+            for (int depth = 0; depth < loopDepth; depth++) {
+                final String index = "i" + loops++;
+                line(indent + depth, "for (int " + index + " = 0; " + index + " < " + variable() + "; " + index + "++) {");
+            }
+            for (int i = 0; i < count; i++) {
+                emitAssignment(indent + loopDepth);
+            }
+            for (int depth = loopDepth - 1; depth >= 0; depth--) {
+                line(indent + depth, "}");
+            }
+            return count;
+        }
+
+        private int emitSwitch(final int indent) {
+            line(indent, "switch (Math.floorMod(" + variable() + ", " + switchCases + ")) {");
+            for (int i = 0; i < switchCases; i++) {
+                line(indent + 1, "case " + i + ":");
+                emitAssignment(indent + 2);
+                line(indent + 2, "break;");
+            }
+            line(indent + 1, "default:");
+            emitAssignment(indent + 2);
+            line(indent, "}");
+            return switchCases + 1;
+        }
+
+        private void emitAssignment(final int indent) {
+            final String[] operators = {" + ", " - ", " * ", " / "};
+            line(indent, variable() + " = " + variable() + operators[random.nextInt(operators.length)] + variable() + ";");
+        }
+
+        private String variable() {
+            return "v" + random.nextInt(liveVariables);
+        }
+
+        private void line(final int indent, final String line) {
+            for (int i = 0; i < indent; i++) {
+                out.append("    ");
+            }
+            out.append(line).append('\n');
+        }
+    }
+}
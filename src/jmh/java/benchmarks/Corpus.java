@@ -0,0 +1,22 @@
+package benchmarks;
+
+import java.nio.file.Paths;
+
+/**
+ * The files of the test corpus used by the benchmarks.
+ */
+final class Corpus {
+    private Corpus() {
+    }
+
+    /**
+     * Returns the path of a file of the corpus. The corpus is {@code src/test/resources}, or the directory given by the
+     * {@code flexeme.corpus} system property, as set by the build.
+     *
+     * @param name the name of the file
+     * @return the path of the file
+     */
+    static String path(final String name) {
+        return Paths.get(System.getProperty("flexeme.corpus", "src/test/resources"), name).toString();
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import org.checkerframework.flexeme.DotPrinter;
+import org.checkerframework.flexeme.DotWriter;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.FilePdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats the PDGs of the files of the test corpus in the DOT format, from the built {@link FilePdg}, which includes
+ * freezing it and rendering its labels, or from its {@link CompactFilePdg}, in memory or streamed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DotPrinterBenchmark {
+    @Param({"AllLanguageFeatures.java", "Loops.java"})
+    public String file;
+
+    private final DotPrinter printer = new DotPrinter();
+    private FilePdg filePdg;
+    private CompactFilePdg snapshot;
+
+    @Setup
+    public void setUp() {
+        PdgExtractor extractor = new PdgExtractor(true);
+        filePdg = new PdgBuilder().buildPdgForFile(extractor.compileFile(Corpus.path(file), null, false, "", ""));
+        snapshot = filePdg.freeze();
+    }
+
+    @Benchmark
+    public String printFilePdg() {
+        return printer.printDot(filePdg);
+    }
+
+    @Benchmark
+    public String printSnapshot() {
+        return printer.printDot(snapshot);
+    }
+
+    @Benchmark
+    public void writeSnapshot() throws IOException {
+        DotWriter.write(snapshot, Writer.nullWriter());
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.FilePdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles the files of the test corpus and builds their PDGs.
+ * <p>
+ * {@link #compile()} measures javac with the CFG building, {@link #build()} the PDG building alone, on the results of
+ * one compilation: the element scan, the control edges, the dataflow and name flow analyses and the local calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExtractionBenchmark {
+    private static final String COMPILE_OUT = "build/jmh/classes/";
+
+    @Param({"AllLanguageFeatures.java", "DoesNotTerminate.java", "Loops.java", "Exceptions.java"})
+    public String file;
+
+    private String path;
+    private PdgExtractor extractor;
+    private PdgBuilder builder;
+    private FileProcessor processor;
+
+    @Setup
+    public void setUp() {
+        path = Corpus.path(file);
+        extractor = new PdgExtractor();
+        builder = new PdgBuilder();
+        processor = extractor.compileFile(path, COMPILE_OUT, false, "", "");
+    }
+
+    @Benchmark
+    public FileProcessor compile() {
+        return extractor.compileFile(path, COMPILE_OUT, false, "", "");
+    }
+
+    @Benchmark
+    public FilePdg build() {
+        return builder.buildPdgForFile(processor);
+    }
+
+    @Benchmark
+    public FilePdg compileAndBuild() {
+        return builder.buildPdgForFile(extractor.compileFile(path, COMPILE_OUT, false, "", ""));
+    }
+}
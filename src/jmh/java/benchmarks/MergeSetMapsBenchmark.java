@@ -0,0 +1,46 @@
+package benchmarks;
+
+import org.checkerframework.flexeme.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges two maps of sets with {@link Util#mergeSetMaps(Map, Map)}, as the dataflow store join does with the last
+ * uses of the variables. Half of the keys are shared, with one value in common out of two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MergeSetMapsBenchmark {
+    @Param({"16", "256", "4096"})
+    public int variables;
+
+    private Map<String, Set<Integer>> left;
+    private Map<String, Set<Integer>> right;
+
+    @Setup
+    public void setUp() {
+        left = new HashMap<>();
+        right = new HashMap<>();
+        for (int i = 0; i < variables; i++) {
+            left.put("v" + i, Set.of(i, -i - 1));
+            right.put("v" + (i + variables / 2), Set.of(i + variables / 2, i + variables));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Set<Integer>> merge() {
+        return Util.mergeSetMaps(left, right);
+    }
+}
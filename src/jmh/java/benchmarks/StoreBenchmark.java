@@ -0,0 +1,78 @@
+package benchmarks;
+
+import com.sun.source.tree.MethodTree;
+import org.checkerframework.dataflow.analysis.ForwardAnalysisImpl;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.dataflow.DataflowStore;
+import org.checkerframework.flexeme.dataflow.DataflowTransfer;
+import org.checkerframework.flexeme.dataflow.VariableReference;
+import org.checkerframework.flexeme.nameflow.NameFlowStore;
+import org.checkerframework.flexeme.nameflow.NameFlowTransfer;
+import org.checkerframework.flexeme.nameflow.NameRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copies and joins the dataflow and name flow stores, the operations the fixpoints repeat at every block.
+ * The stores are the exit stores of the method of {@code AllLanguageFeatures.java} with the largest CFG.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StoreBenchmark {
+    private DataflowStore dataflowStore;
+    private DataflowStore dataflowCopy;
+    private NameFlowStore nameFlowStore;
+    private NameFlowStore nameFlowCopy;
+
+    @Setup
+    public void setUp() {
+        FileProcessor processor = new PdgExtractor(true).compileFile(Corpus.path("AllLanguageFeatures.java"), null, false, "", "");
+        ControlFlowGraph largest = null;
+        for (final MethodTree method : processor.getMethodsAst()) {
+            ControlFlowGraph cfg = processor.getMethodCfg(method);
+            if (largest == null || cfg.getAllBlocks().size() > largest.getAllBlocks().size()) {
+                largest = cfg;
+            }
+        }
+
+        ForwardAnalysisImpl<VariableReference, DataflowStore, DataflowTransfer> dataflow = new ForwardAnalysisImpl<>(new DataflowTransfer());
+        dataflow.performAnalysis(largest);
+        dataflowStore = dataflow.getRegularExitStore();
+        dataflowCopy = dataflowStore.copy();
+
+        ForwardAnalysisImpl<NameRecord, NameFlowStore, NameFlowTransfer> nameFlow = new ForwardAnalysisImpl<>(new NameFlowTransfer());
+        nameFlow.performAnalysis(largest);
+        nameFlowStore = nameFlow.getRegularExitStore();
+        nameFlowCopy = nameFlowStore.copy();
+    }
+
+    @Benchmark
+    public DataflowStore dataflowCopy() {
+        return dataflowStore.copy();
+    }
+
+    @Benchmark
+    public DataflowStore dataflowLub() {
+        return dataflowStore.leastUpperBound(dataflowCopy);
+    }
+
+    @Benchmark
+    public NameFlowStore nameFlowCopy() {
+        return nameFlowStore.copy();
+    }
+
+    @Benchmark
+    public NameFlowStore nameFlowLub() {
+        return nameFlowStore.leastUpperBound(nameFlowCopy);
+    }
+}
@@ -0,0 +1,128 @@
+package org.checkerframework.flexeme;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Limits on the dataflow and name flow analyses of a method: the wall-clock time, the number of transfers of their
+ * fixpoints and the size of their stores. A limit of 0 means no limit.
+ * <p>
+ * The limits apply to all the analyses of a method together, each method being tracked by its own {@link Meter}.
+ * The transfer functions report every transfer to the meter, which throws a {@link BudgetExceededException} once a
+ * limit is exceeded. The clock and the store size are only checked every few transfers, so a method can overrun the
+ * time and store limits by a little. The bit-vector dataflow and the single-pass name flow have no fixpoint and are
+ * not limited.
+ */
+public final class AnalysisBudget {
+    /**
+     * The budget without limits.
+     */
+    public static final AnalysisBudget UNLIMITED = new AnalysisBudget(0, 0, 0);
+    private static final int CHECK_INTERVAL = 64;
+
+    private final long maxMillis;
+    private final long maxTransfers;
+    private final int maxStoreSize;
+
+    /**
+     * @param maxMillis    the wall-clock time of the analyses of a method, in milliseconds, or 0
+     * @param maxTransfers the number of transfers of the analyses of a method, or 0
+     * @param maxStoreSize the number of entries of a store, or 0
+     */
+    public AnalysisBudget(final long maxMillis, final long maxTransfers, final int maxStoreSize) {
+        if (maxMillis < 0 || maxTransfers < 0 || maxStoreSize < 0) {
+            throw new IllegalArgumentException("The limits of an analysis budget cannot be negative");
+        }
+        this.maxMillis = maxMillis;
+        this.maxTransfers = maxTransfers;
+        this.maxStoreSize = maxStoreSize;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public long getMaxTransfers() {
+        return maxTransfers;
+    }
+
+    public int getMaxStoreSize() {
+        return maxStoreSize;
+    }
+
+    /**
+     * Returns whether the budget has no limit.
+     *
+     * @return true if every limit is 0
+     */
+    public boolean isUnlimited() {
+        return maxMillis == 0 && maxTransfers == 0 && maxStoreSize == 0;
+    }
+
+    /**
+     * Starts tracking the analyses of a method against the budget. The clock starts now.
+     *
+     * @return the meter of the method
+     */
+    public Meter start() {
+        return new Meter();
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisBudget{maxMillis=" + maxMillis + ", maxTransfers=" + maxTransfers + ", maxStoreSize=" + maxStoreSize + "}";
+    }
+
+    /**
+     * The limits of a budget.
+     */
+    public enum Limit {
+        TIME, TRANSFERS, STORE_SIZE
+    }
+
+    /**
+     * Tracks the analyses of one method against the budget. A meter is not thread-safe.
+     */
+    public final class Meter {
+        private final long deadline;
+        private long transfers = 0;
+
+        private Meter() {
+            deadline = maxMillis == 0 ? 0 : System.nanoTime() + maxMillis * 1_000_000;
+        }
+
+        /**
+         * Records a transfer and checks the limits.
+         *
+         * @param storeSize the number of entries of the store the transfer applies to, only computed when the
+         *                  store size is checked
+         * @throws BudgetExceededException if a limit is exceeded
+         */
+        public void transfer(final IntSupplier storeSize) {
+            transfers++;
+            if (maxTransfers != 0 && transfers > maxTransfers) {
+                throw new BudgetExceededException(Limit.TRANSFERS, "More than " + maxTransfers + " transfers");
+            }
+            if (transfers % CHECK_INTERVAL != 0) {
+                return;
+            }
+            if (deadline != 0 && System.nanoTime() - deadline > 0) {
+                throw new BudgetExceededException(Limit.TIME, "More than " + maxMillis + " ms");
+            }
+            if (maxStoreSize != 0) {
+                final int size = storeSize.getAsInt();
+                if (size > maxStoreSize) {
+                    throw new BudgetExceededException(Limit.STORE_SIZE, "Store of " + size + " entries, more than " + maxStoreSize);
+                }
+            }
+        }
+
+        /**
+         * Returns the number of transfers recorded.
+         *
+         * @return the number of transfers
+         */
+        public long getTransfers() {
+            return transfers;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.checkerframework.flexeme;
+
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.CompactPdg;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads back the PDGs of a file written by {@link BinaryPdgWriter}, see there for the format.
+ * The PDGs are loaded directly into their {@link CompactFilePdg} form. The files of the previous versions of the
+ * format are read as well.
+ */
+public final class BinaryPdgReader {
+    private static final PdgEdge.Type[] TYPES = PdgEdge.Type.values();
+
+    private static final int FIRST_VERSION = 1;
+
+    private final DataInputStream in;
+    private int version;
+    private String[] strings;
+
+    private BinaryPdgReader(final InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /**
+     * Reads the PDGs of a file. The input is not closed and should be buffered.
+     *
+     * @param in the input
+     * @return the PDGs of the file
+     * @throws IOException if the input cannot be read, is not a binary PDG or has an unsupported version
+     */
+    public static CompactFilePdg read(final InputStream in) throws IOException {
+        return new BinaryPdgReader(in).readFile();
+    }
+
+    private CompactFilePdg readFile() throws IOException {
+        final byte[] magic = new byte[BinaryPdgWriter.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, BinaryPdgWriter.MAGIC)) {
+            throw new IOException("Not a binary PDG");
+        }
+        version = readInt();
+        if (version < FIRST_VERSION || version > BinaryPdgWriter.VERSION) {
+            throw new IOException("Unsupported binary PDG version: " + version + ", expected " + FIRST_VERSION + " to " + BinaryPdgWriter.VERSION);
+        }
+
+        strings = new String[readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            final byte[] bytes = new byte[readInt()];
+            in.readFully(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        final int graphCount = readInt();
+        final List<CompactPdg> graphs = new ArrayList<>(graphCount);
+        for (int i = 0; i < graphCount; i++) {
+            graphs.add(readGraph());
+        }
+
+        final int callCount = readInt();
+        final long[] callers = new long[callCount];
+        final long[] callees = new long[callCount];
+        for (int call = 0; call < callCount; call++) {
+            callers[call] = readSigned();
+            callees[call] = readSigned();
+        }
+        return new CompactFilePdg(graphs, callers, callees);
+    }
+
+    private CompactPdg readGraph() throws IOException {
+        final String className = readString();
+        final String methodName = readString();
+        final String qualifiedName = readString();
+        final int parameterCount = readInt();
+        final List<String> parametersType = new ArrayList<>(parameterCount);
+        for (int i = 0; i < parameterCount; i++) {
+            parametersType.add(readString());
+        }
+        AnalysisBudget.Limit exceededLimit = null;
+        if (version >= 2) {
+            final int limit = readInt();
+            if (limit != 0) {
+                final String name = string(limit - 1);
+                try {
+                    exceededLimit = AnalysisBudget.Limit.valueOf(name);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unknown budget limit: " + name, e);
+                }
+            }
+        }
+
+        final int nodeCount = readInt();
+        final long[] ids = new long[nodeCount];
+        final String[] labels = new String[nodeCount];
+        final long[] startLines = new long[nodeCount];
+        final long[] endLines = new long[nodeCount];
+        long previousId = 0;
+        long previousLine = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            ids[node] = previousId + readSigned();
+            labels[node] = readString();
+            startLines[node] = previousLine + readSigned();
+            endLines[node] = startLines[node] + readSigned();
+            previousId = ids[node];
+            previousLine = startLines[node];
+        }
+
+        final int[][] offsets = new int[TYPES.length][];
+        final int[][] targets = new int[TYPES.length][];
+        final int typeCount = readInt();
+        for (int i = 0; i < typeCount; i++) {
+            final String name = readString();
+            final int type;
+            try {
+                type = PdgEdge.Type.valueOf(name).ordinal();
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown edge type: " + name, e);
+            }
+            final int[] typeOffsets = new int[nodeCount + 1];
+            for (int node = 0; node < nodeCount; node++) {
+                typeOffsets[node + 1] = typeOffsets[node] + readInt();
+            }
+            final int[] typeTargets = new int[typeOffsets[nodeCount]];
+            for (int edge = 0; edge < typeTargets.length; edge++) {
+                typeTargets[edge] = readInt();
+                if (typeTargets[edge] >= nodeCount) {
+                    throw new IOException("Edge target out of range: " + typeTargets[edge]);
+                }
+            }
+            offsets[type] = typeOffsets;
+            targets[type] = typeTargets;
+        }
+        for (int type = 0; type < TYPES.length; type++) {
+            if (offsets[type] == null) {
+                offsets[type] = new int[nodeCount + 1];
+                targets[type] = new int[0];
+            }
+        }
+
+        return new CompactPdg(className, methodName, qualifiedName, parametersType,
+                ids, labels, startLines, endLines, offsets, targets, exceededLimit);
+    }
+
+    private String readString() throws IOException {
+        return string(readInt());
+    }
+
+    private String string(final int index) throws IOException {
+        if (index >= strings.length) {
+            throw new IOException("String index out of range: " + index);
+        }
+        return strings[index];
+    }
+
+    private int readInt() throws IOException {
+        final long value = readVarint();
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private long readSigned() throws IOException {
+        final long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
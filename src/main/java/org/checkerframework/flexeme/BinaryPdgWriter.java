@@ -0,0 +1,164 @@
+package org.checkerframework.flexeme;
+
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.CompactPdg;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes the PDGs of a file in a compact binary format, read back by {@link BinaryPdgReader}.
+ * <p>
+ * The format is, with every integer an unsigned LEB128 varint and signed integers zigzag-encoded first:
+ * <pre>
+ * magic "FXPG", version
+ * string count, then each string as its UTF-8 length and bytes
+ * graph count, then for each graph:
+ *   class name, method name, qualified name: string indexes
+ *   parameter count, then each parameter type: string index
+ *   exceeded budget limit: 0 if the analyses completed, otherwise 1 + string index of the limit name (since version 2)
+ *   node count, then for each node:
+ *     id: signed delta from the previous id of the graph
+ *     label: string index
+ *     start line: signed delta from the previous start line of the graph, end line: delta from the start line
+ *   count of the edge types with edges, then for each such type:
+ *     type name: string index
+ *     out degree of each node, then the target node indexes, node by node
+ * call count, then for each call the caller id and the callee id, signed
+ * </pre>
+ * Labels and names are stored once in the string table. The edges are packed by {@link PdgEdge.Type}, like in the
+ * {@link CompactPdg}, and refer to the nodes by their index within the graph.
+ * Version 1 is version 2 without the exceeded budget limits.
+ */
+public final class BinaryPdgWriter {
+    static final byte[] MAGIC = {'F', 'X', 'P', 'G'};
+    static final int VERSION = 2;
+
+    private final OutputStream out;
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+    private BinaryPdgWriter(final OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes the PDGs of a file. The output is not closed and should be buffered.
+     *
+     * @param filePdg the PDGs of the file
+     * @param out     the output
+     * @throws IOException if the output cannot be written
+     */
+    public static void write(final CompactFilePdg filePdg, final OutputStream out) throws IOException {
+        new BinaryPdgWriter(out).writeFile(filePdg);
+        out.flush();
+    }
+
+    private void writeFile(final CompactFilePdg filePdg) throws IOException {
+        for (final CompactPdg graph : filePdg.getGraphs()) {
+            internStrings(graph);
+        }
+
+        out.write(MAGIC);
+        writeVarint(VERSION);
+        writeVarint(strings.size());
+        for (final String string : strings.keySet()) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+
+        writeVarint(filePdg.getGraphs().size());
+        for (final CompactPdg graph : filePdg.getGraphs()) {
+            writeGraph(graph);
+        }
+
+        writeVarint(filePdg.callCount());
+        for (int call = 0; call < filePdg.callCount(); call++) {
+            writeSigned(filePdg.getCaller(call));
+            writeSigned(filePdg.getCallee(call));
+        }
+    }
+
+    private void internStrings(final CompactPdg graph) {
+        intern(graph.getClassName());
+        intern(graph.getMethodName());
+        intern(graph.getQualifiedName());
+        graph.getParametersType().forEach(this::intern);
+        if (graph.getExceededLimit() != null) {
+            intern(graph.getExceededLimit().name());
+        }
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            intern(graph.getLabel(node));
+        }
+        for (final PdgEdge.Type type : PdgEdge.Type.values()) {
+            if (graph.edgeCount(type) > 0) {
+                intern(type.name());
+            }
+        }
+    }
+
+    private void intern(final String string) {
+        strings.putIfAbsent(string, strings.size());
+    }
+
+    private void writeGraph(final CompactPdg graph) throws IOException {
+        writeVarint(strings.get(graph.getClassName()));
+        writeVarint(strings.get(graph.getMethodName()));
+        writeVarint(strings.get(graph.getQualifiedName()));
+        writeVarint(graph.getParametersType().size());
+        for (final String parameterType : graph.getParametersType()) {
+            writeVarint(strings.get(parameterType));
+        }
+        writeVarint(graph.getExceededLimit() == null ? 0 : 1 + strings.get(graph.getExceededLimit().name()));
+
+        writeVarint(graph.nodeCount());
+        long previousId = 0;
+        long previousLine = 0;
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            writeSigned(graph.getId(node) - previousId);
+            writeVarint(strings.get(graph.getLabel(node)));
+            writeSigned(graph.getStartLine(node) - previousLine);
+            writeSigned(graph.getEndLine(node) - graph.getStartLine(node));
+            previousId = graph.getId(node);
+            previousLine = graph.getStartLine(node);
+        }
+
+        int typeCount = 0;
+        for (final PdgEdge.Type type : PdgEdge.Type.values()) {
+            if (graph.edgeCount(type) > 0) {
+                typeCount++;
+            }
+        }
+        writeVarint(typeCount);
+        for (final PdgEdge.Type type : PdgEdge.Type.values()) {
+            if (graph.edgeCount(type) == 0) {
+                continue;
+            }
+            writeVarint(strings.get(type.name()));
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                writeVarint(graph.outDegree(node, type));
+            }
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                for (int i = 0; i < graph.outDegree(node, type); i++) {
+                    writeVarint(graph.getTarget(node, type, i));
+                }
+            }
+        }
+    }
+
+    private void writeSigned(final long value) throws IOException {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
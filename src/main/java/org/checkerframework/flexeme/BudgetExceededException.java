@@ -0,0 +1,24 @@
+package org.checkerframework.flexeme;
+
+/**
+ * Thrown from a transfer function to stop the analysis of a method that exceeds its {@link AnalysisBudget}.
+ */
+public class BudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final AnalysisBudget.Limit limit;
+
+    public BudgetExceededException(final AnalysisBudget.Limit limit, final String message) {
+        super(message);
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the limit exceeded.
+     *
+     * @return the limit
+     */
+    public AnalysisBudget.Limit getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,142 @@
+package org.checkerframework.flexeme;
+
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.util.TreeScanner;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.org.plumelib.util.UnmodifiableIdentityHashMap;
+
+import java.util.*;
+
+/**
+ * Maps the CFG nodes of a method to the PDG elements they belong to.
+ * <p>
+ * A CFG node belongs to the PDG elements whose subtree, or postfix operation, contains its tree, and to the elements
+ * of the nodes it is a transitive operand of. PDG elements can be nested, e.g., a method invocation in an if condition;
+ * a node belonging to several elements is mapped to the last one in the order of the elements, the innermost one.
+ * <p>
+ * The index is built with one scan of the method AST, which looks each tree up in the CFG once, followed by one
+ * propagation of the elements from the nodes to their operands.
+ */
+public class CfgNodesIndex extends TreeScanner<Void, Void> {
+    private final ControlFlowGraph cfg;
+    private final UnmodifiableIdentityHashMap<UnaryTree, BinaryTree> postfixNodeLookup;
+    private final List<Tree> elements;
+    private final Map<Tree, Integer> elementOrder = new IdentityHashMap<>();
+    /**
+     * The order of the last element found for each node. Nodes override equals, they are compared by reference.
+     */
+    private final Map<Node, Integer> nodeElements = new IdentityHashMap<>();
+    private Integer currentElement;
+
+    /**
+     * @param cfg      the CFG of the method
+     * @param elements the PDG elements of the method, in order
+     */
+    public CfgNodesIndex(final ControlFlowGraph cfg, final Collection<Tree> elements) {
+        this.cfg = cfg;
+        this.postfixNodeLookup = cfg.getPostfixNodeLookup();
+        this.elements = new ArrayList<>(elements);
+        for (int i = 0; i < this.elements.size(); i++) {
+            elementOrder.put(this.elements.get(i), i);
+        }
+    }
+
+    /**
+     * Builds the map from the CFG nodes to the PDG elements.
+     *
+     * @param method the AST of the method, or any tree containing the PDG elements
+     * @return the PDG element of each CFG node belonging to one, as an identity map
+     */
+    public Map<Node, Tree> index(final Tree method) {
+        scan(method, null);
+        propagateToOperands();
+
+        final Map<Node, Tree> cfgNodesToPdgElements = new IdentityHashMap<>();
+        nodeElements.forEach((node, order) -> cfgNodesToPdgElements.put(node, elements.get(order)));
+        return cfgNodesToPdgElements;
+    }
+
+    @Override
+    public Void scan(final Tree tree, final Void unused) {
+        if (tree == null) {
+            return null;
+        }
+
+        final Integer enclosingElement = currentElement;
+        final Integer order = elementOrder.get(tree);
+        if (order != null) {
+            currentElement = order;
+        }
+        if (currentElement != null) {
+            final Set<Node> nodes = cfg.getNodesCorrespondingToTree(tree);
+            if (nodes != null) {
+                for (final Node node : nodes) {
+                    found(node, currentElement);
+                }
+            }
+        }
+
+        super.scan(tree, unused);
+
+        // Retrieve postfix operations.
+        if (order != null) {
+            final BinaryTree binaryTree = postfixNodeLookup.get(tree);
+            if (binaryTree != null) {
+                scan(binaryTree, unused);
+            }
+        }
+        currentElement = enclosingElement;
+        return null;
+    }
+
+    private void found(final Node node, final int order) {
+        nodeElements.merge(node, order, Math::max);
+    }
+
+    /**
+     * Maps the operands of the nodes to the elements of the nodes, from the outermost nodes to the operands.
+     */
+    private void propagateToOperands() {
+        for (final Node node : usersBeforeOperands()) {
+            final Integer order = nodeElements.get(node);
+            for (final Node operand : node.getOperands()) {
+                found(operand, order);
+            }
+        }
+    }
+
+    /**
+     * Returns the nodes found in the AST and their transitive operands, every node coming before its operands.
+     */
+    private List<Node> usersBeforeOperands() {
+        final List<Node> postOrder = new ArrayList<>();
+        final Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Node> path = new ArrayDeque<>();
+        final Deque<Iterator<Node>> pending = new ArrayDeque<>();
+        for (final Node root : new ArrayList<>(nodeElements.keySet())) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            path.push(root);
+            pending.push(root.getOperands().iterator());
+            while (!path.isEmpty()) {
+                final Iterator<Node> operands = pending.peek();
+                if (operands.hasNext()) {
+                    final Node operand = operands.next();
+                    if (visited.add(operand)) {
+                        path.push(operand);
+                        pending.push(operand.getOperands().iterator());
+                    }
+                } else {
+                    pending.pop();
+                    postOrder.add(path.pop());
+                }
+            }
+        }
+        Collections.reverse(postOrder);
+        return postOrder;
+    }
+}
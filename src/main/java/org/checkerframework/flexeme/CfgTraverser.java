@@ -1,17 +1,12 @@
 package org.checkerframework.flexeme;
 
-import org.checkerframework.checker.nullness.qual.Nullable;
-import org.checkerframework.dataflow.analysis.Analysis;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.dataflow.cfg.block.Block;
 import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
 import org.checkerframework.dataflow.cfg.block.SpecialBlock;
 import org.checkerframework.dataflow.cfg.node.Node;
-import org.checkerframework.dataflow.cfg.visualize.DOTCFGVisualizer;
-import org.checkerframework.flexeme.dataflow.DataflowStore;
-import org.checkerframework.flexeme.dataflow.DataflowTransfer;
-import org.checkerframework.flexeme.dataflow.VariableReference;
 import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder.ControlEdges;
 import org.checkerframework.flexeme.pdg.PdgEdge;
 import org.checkerframework.flexeme.pdg.PdgNode;
 import org.slf4j.Logger;
@@ -21,19 +16,31 @@ import java.util.*;
 
 /**
  * Adds the control flow edges to the PDG passed in {@link #traverseEdges(MethodPdg, ControlFlowGraph)}.
- * NOTE: {@link DOTCFGVisualizer} is designed to traverse the CFG and build a DOT representation. Our implementation
- * only needs to traverse the CFG and add the edges to the PDG. The DOT representation is not needed. Unfortunately, there
- * are no implementation that just traverse the PDG.
- * TODO: Split DOTCFGVisualizer between the CFG traversal and the DOT generation.
+ * <p>
+ * The CFG edges between blocks are projected on the PDG nodes: an edge goes from the exit nodes of a block to the
+ * entry nodes of its successors. A block without PDG node is transparent: its exit nodes are the exit nodes of its
+ * predecessors, and its entry nodes are the entry nodes of its successors. The entry and exit nodes of each block are
+ * computed once, without recursion, and cached for the whole traversal.
+ * <p>
+ * With {@link ControlEdges#DEPENDENCE}, the traverser adds the control dependence edges computed from the
+ * {@link PostDominatorTree} instead: an edge goes from the PDG node deciding a branch to each PDG node that runs
+ * depending on the branch taken.
  */
-public class CfgTraverser extends DOTCFGVisualizer<VariableReference, DataflowStore, DataflowTransfer> {
+public class CfgTraverser {
 
     Logger logger = LoggerFactory.getLogger(CfgTraverser.class);
 
+    private final ControlEdges controlEdges;
     private MethodPdg methodPdg;
+    private Projection fromNodes;
+    private Projection toNodes;
 
     public CfgTraverser() {
-        super();
+        this(ControlEdges.SUCCESSION);
+    }
+
+    public CfgTraverser(final ControlEdges controlEdges) {
+        this.controlEdges = controlEdges;
     }
 
     /**
@@ -44,187 +51,303 @@ public class CfgTraverser extends DOTCFGVisualizer<VariableReference, DataflowSt
      */
     public void traverseEdges(final MethodPdg methodPdg, final ControlFlowGraph controlFlowGraph) {
         this.methodPdg = methodPdg;
+        this.fromNodes = new Projection(false);
+        this.toNodes = new Projection(true);
 
-        // Traverse the blocks.
-        visualizeGraphWithoutHeaderAndFooter(controlFlowGraph, controlFlowGraph.getEntryBlock(), null);
+        if (controlEdges == ControlEdges.DEPENDENCE) {
+            addControlDependenceEdges(controlFlowGraph);
+            return;
+        }
+        for (final Block block : reachableBlocks(controlFlowGraph.getEntryBlock())) {
+            addEdges(block, controlFlowGraph);
+        }
     }
 
     /**
-     * Disabled method because we don't need to generate the DOT representation. Use {@link #traverseEdges(MethodPdg, ControlFlowGraph)} instead.
+     * Adds an edge from the nodes deciding each branch to the nodes control dependent on it, and the exit edges.
+     *
+     * @param cfg the control flow graph
      */
-    @Override
-    public Map<String, Object> visualize(ControlFlowGraph cfg, Block entry, @Nullable Analysis<VariableReference, DataflowStore, DataflowTransfer> analysis) {
-        throw new UnsupportedOperationException("Use traverseEdges instead");
+    private void addControlDependenceEdges(final ControlFlowGraph cfg) {
+        final PostDominatorTree postDominatorTree = new PostDominatorTree(cfg);
+        final Map<PdgNode, Set<PdgNode>> added = new HashMap<>();
+        for (final Map.Entry<Block, Set<Block>> dependence : postDominatorTree.getControlDependences().entrySet()) {
+            // A conditional block has no node, the branch is decided by the last nodes before it.
+            final List<PdgNode> controllers = fromNodes.get(dependence.getKey());
+            if (controllers.isEmpty()) {
+                logger.debug("No controlling node found for block: " + dependence.getKey());
+                continue;
+            }
+
+            for (final Block dependent : dependence.getValue()) {
+                for (final Node node : dependent.getNodes()) {
+                    final PdgNode to = methodPdg.getNode(node);
+                    if (to == null) {
+                        continue;
+                    }
+                    for (final PdgNode from : controllers) {
+                        if (!from.equals(to) && added.computeIfAbsent(from, key -> new HashSet<>()).add(to)) {
+                            methodPdg.addEdge(new PdgEdge(from, to, PdgEdge.Type.CONTROL));
+                        }
+                    }
+                }
+            }
+        }
+
+        if (postDominatorTree.getBlocks().contains(cfg.getRegularExitBlock())) {
+            for (PdgNode from : fromNodes.get(cfg.getRegularExitBlock())) {
+                for (PdgNode to : toNodes.get(cfg.getEntryBlock())) {
+                    methodPdg.addEdge(new PdgEdge(from, to, PdgEdge.Type.EXIT));
+                }
+            }
+        }
     }
 
     /**
-     * Adds the control flow edges to the PDG.
+     * Returns the blocks reachable from the entry block, in breadth-first order.
      *
-     * @param blocks   the set of all the blocks in a control flow graph
-     * @param cfg      the control flow graph
-     * @param analysis the current analysis
-     * @return An empty string. This method is only used to add the edges to the PDGm not generate a DOT representation.
+     * @param entry the entry block of the CFG
+     * @return the reachable blocks
      */
-    @Override
-    public String visualizeNodes(Set<Block> blocks, ControlFlowGraph cfg, @Nullable Analysis<VariableReference, DataflowStore, DataflowTransfer> analysis) {
-        for (final Block block : blocks) {
-            // TODO If the block has no PDG elements, skip it (there won't be any "from" node to see).
-
-            // Convert CFG edges between blocks to PDG edges between PDG nodes.
-            if (block.equals(cfg.getRegularExitBlock())) { // Exit block, create edge between last statements and exit
-                List<PdgNode> fromNodes = findFromNodes(block);
-                List<PdgNode> toNodes = findToNodes(cfg.getEntryBlock());
-                for (PdgNode from : fromNodes) {
-                    for (PdgNode to : toNodes) {
-                        PdgEdge edge = new PdgEdge(from, to, PdgEdge.Type.EXIT);
-                        methodPdg.addEdge(edge);
-                    }
+    private static Set<Block> reachableBlocks(final Block entry) {
+        final Set<Block> visited = new LinkedHashSet<>();
+        final Queue<Block> worklist = new ArrayDeque<>();
+        visited.add(entry);
+        worklist.add(entry);
+        while (!worklist.isEmpty()) {
+            for (final Block successor : worklist.remove().getSuccessors()) {
+                if (visited.add(successor)) {
+                    worklist.add(successor);
                 }
-            } else {
-                List<PdgNode> fromNodes = findFromNodes(block);
+            }
+        }
+        return visited;
+    }
 
-                if (fromNodes.size() == 0) {
-                    logger.debug("No from node found for block: " + block);
-                    continue;
+    /**
+     * Adds the control flow edges of a block to the PDG.
+     *
+     * @param block the block
+     * @param cfg   the control flow graph
+     */
+    private void addEdges(final Block block, final ControlFlowGraph cfg) {
+        // Convert CFG edges between blocks to PDG edges between PDG nodes.
+        if (block.equals(cfg.getRegularExitBlock())) { // Exit block, create edge between last statements and exit
+            for (PdgNode from : fromNodes.get(block)) {
+                for (PdgNode to : toNodes.get(cfg.getEntryBlock())) {
+                    methodPdg.addEdge(new PdgEdge(from, to, PdgEdge.Type.EXIT));
                 }
-
-                List<PdgNode> toNodes = new ArrayList<>();
+            }
+        } else {
+            List<PdgNode> from = fromNodes.get(block);
+            if (from.isEmpty()) {
+                logger.debug("No from node found for block: " + block);
+            } else {
+                List<PdgNode> to = new ArrayList<>();
                 for (final Block successor : block.getSuccessors()) {
-                    toNodes.addAll(findToNodes(successor));
+                    to.addAll(toNodes.get(successor));
                 }
 
-                if (toNodes.size() == 0) {
+                if (to.isEmpty()) {
                     logger.debug("No to node found for block: " + block);
-                    continue;
                 }
+                addControlEdges(from, to);
+            }
+        }
 
-                for (PdgNode from : fromNodes) {
-                    for (PdgNode to : toNodes) {
-                        if (!from.equals(to)) {
-                            PdgEdge edge = new PdgEdge(from, to, PdgEdge.Type.CONTROL);
-                            // System.out.println(edge);
-                            methodPdg.addEdge(edge);
-                        }
-                    }
-                }
+        // Convert CFG edges in a block to PDG edges between PDG nodes.
+        PdgNode previous = null;
+        for (final Node node : block.getNodes()) {
+            // Ignore nodes that are not in the PDG.
+            final PdgNode current = methodPdg.getNode(node);
+            if (current == null) {
+                continue;
             }
 
-            // Convert CFG edges in a block to PDG edges between PDG nodes.
-            Node previousNode = null;
-            for (final Node node : block.getNodes()) {
-                // Ignore nodes that are not in the PDG.
-                if (methodPdg.getNode(node) == null) {
-                    continue;
-                }
+            if (previous != null && !previous.equals(current)) { // Skip self-edges on PDG nodes unless there is a true self loop in the CFG.
+                methodPdg.addEdge(new PdgEdge(previous, current, PdgEdge.Type.CONTROL));
+            }
+            previous = current;
+        }
+    }
 
-                if (previousNode != null) {
-                    PdgNode from = methodPdg.getNode(previousNode);
-                    PdgNode to = methodPdg.getNode(node);
-
-                    if (from == null) {
-                        logger.error("No from node found for node: " + previousNode);
-                    } else if (to == null) {
-                        logger.error("No to node found for node: " + node);
-                    } else if (!from.equals(to)) { // Skip self-edges on PDG nodes unless there is a true self loop in the CFG.
-                        PdgEdge edge = new PdgEdge(from, to, PdgEdge.Type.CONTROL);
-                        // System.out.println(edge);
-                        methodPdg.addEdge(edge);
-                    }
+    private void addControlEdges(final List<PdgNode> fromNodes, final List<PdgNode> toNodes) {
+        for (PdgNode from : fromNodes) {
+            for (PdgNode to : toNodes) {
+                if (!from.equals(to)) {
+                    methodPdg.addEdge(new PdgEdge(from, to, PdgEdge.Type.CONTROL));
                 }
-                previousNode = node;
             }
         }
-        return "";
     }
 
     /**
-     * Find the outgoing node from a given block.
+     * Returns the PDG nodes of a block that is not transparent.
      *
-     * @param block the block to find the outgoing node for
-     * @return the outgoing node
+     * @param block the block
+     * @param entry whether to look for the first PDG node of the block or its last one
+     * @return the PDG nodes, or null if the nodes come from the neighbours of the block
      */
-    private List<PdgNode> findFromNodes(final Block block) {
+    private List<PdgNode> ownNodes(final Block block, final boolean entry) {
         switch (block.getType()) {
             case REGULAR_BLOCK:
-                ListIterator<Node> iterator = block.getNodes().listIterator(block.getNodes().size());
-                while (iterator.hasPrevious()) {
-                    Node previous = iterator.previous();
-                    if (methodPdg.getNode(previous) != null) {
-                        return List.of(methodPdg.getNode(previous));
+                final List<Node> nodes = block.getNodes();
+                for (int i = 0; i < nodes.size(); i++) {
+                    final PdgNode node = methodPdg.getNode(nodes.get(entry ? i : nodes.size() - 1 - i));
+                    if (node != null) {
+                        return List.of(node);
                     }
                 }
-
-                List<PdgNode> predecessorNodes1 = new ArrayList<>();
-                for (final Block predecessor : block.getPredecessors()) {
-                    predecessorNodes1.addAll(findFromNodes(predecessor));
-                }
-                return predecessorNodes1;
-
+                return null;
             case CONDITIONAL_BLOCK:
-                List<PdgNode> predecessorNodes2 = new ArrayList<>();
-                for (final Block predecessor : block.getPredecessors()) {
-                    predecessorNodes2.addAll(findFromNodes(predecessor));
-                }
-                return predecessorNodes2;
+                return null;
             case SPECIAL_BLOCK:
-                return List.of(methodPdg.getNode((SpecialBlock) block));
+                final PdgNode special = methodPdg.getNode((SpecialBlock) block);
+                return special == null ? List.of() : List.of(special);
             case EXCEPTION_BLOCK:
-                ExceptionBlock exceptionBlock = (ExceptionBlock) block;
-                PdgNode node = methodPdg.getNode(exceptionBlock.getNode());
-                if (node == null) {
-                    return List.of();
-                } else {
+                final PdgNode node = methodPdg.getNode(((ExceptionBlock) block).getNode());
+                if (node != null) {
                     return List.of(node);
                 }
+                // An exception block without PDG node falls through to its successors but does not come from its predecessors.
+                return entry ? null : List.of();
             default:
                 throw new IllegalStateException("Unexpected value: " + block.getType());
         }
     }
 
     /**
-     * Find the incoming node to a given block.
-     *
-     * @param block the block to find the incoming node for
-     * @return the incoming node
+     * The entry or exit PDG nodes of the blocks, computed on demand and cached.
+     * <p>
+     * The nodes of a transparent block are the concatenation of the nodes of its neighbours, in order, so a node
+     * reached through several paths appears once per path. The transparent blocks are resolved in the order of a
+     * depth-first search with an explicit stack; the blocks of a cycle of transparent blocks, found as the strongly
+     * connected components of Tarjan's algorithm, share the distinct nodes around the cycle.
      */
-    private List<PdgNode> findToNodes(final Block block) {
-        switch (block.getType()) {
-            case REGULAR_BLOCK:
-                for (Node node : block.getNodes()) {
-                    // System.out.println("    " + node);
-                    if (methodPdg.getNode(node) != null) {
-                        return List.of(methodPdg.getNode(node));
+    private final class Projection {
+        private final boolean entry;
+        private final Map<Block, List<PdgNode>> cache = new HashMap<>();
+
+        /**
+         * @param entry true for the entry nodes, found through the successors, false for the exit nodes, found
+         *              through the predecessors
+         */
+        Projection(final boolean entry) {
+            this.entry = entry;
+        }
+
+        private Set<Block> neighbours(final Block block) {
+            return entry ? block.getSuccessors() : block.getPredecessors();
+        }
+
+        /**
+         * Returns the entry or exit PDG nodes of a block.
+         *
+         * @param block the block
+         * @return the PDG nodes, possibly with duplicates
+         */
+        List<PdgNode> get(final Block block) {
+            List<PdgNode> nodes = cache.get(block);
+            if (nodes == null) {
+                resolve(block);
+                nodes = cache.get(block);
+            }
+            return nodes;
+        }
+
+        /**
+         * Tries to resolve a block without looking at its neighbours.
+         *
+         * @return whether the block is resolved
+         */
+        private boolean resolveLeaf(final Block block) {
+            if (cache.containsKey(block)) {
+                return true;
+            }
+            final List<PdgNode> nodes = ownNodes(block, entry);
+            if (nodes != null) {
+                cache.put(block, nodes);
+                return true;
+            }
+            return false;
+        }
+
+        private void resolve(final Block root) {
+            if (resolveLeaf(root)) {
+                return;
+            }
+
+            final Map<Block, Integer> index = new HashMap<>();
+            final Map<Block, Integer> lowLink = new HashMap<>();
+            final Deque<Block> component = new ArrayDeque<>();
+            final Set<Block> onComponent = new HashSet<>();
+            final Deque<Block> path = new ArrayDeque<>();
+            final Deque<Iterator<Block>> pending = new ArrayDeque<>();
+
+            index.put(root, 0);
+            lowLink.put(root, 0);
+            component.push(root);
+            onComponent.add(root);
+            path.push(root);
+            pending.push(neighbours(root).iterator());
+
+            while (!path.isEmpty()) {
+                final Block block = path.peek();
+                final Iterator<Block> iterator = pending.peek();
+                if (iterator.hasNext()) {
+                    final Block neighbour = iterator.next();
+                    if (resolveLeaf(neighbour)) {
+                        continue;
+                    }
+                    if (!index.containsKey(neighbour)) {
+                        index.put(neighbour, index.size());
+                        lowLink.put(neighbour, index.get(neighbour));
+                        component.push(neighbour);
+                        onComponent.add(neighbour);
+                        path.push(neighbour);
+                        pending.push(neighbours(neighbour).iterator());
+                    } else if (onComponent.contains(neighbour)) {
+                        lowLink.put(block, Math.min(lowLink.get(block), index.get(neighbour)));
                     }
+                    continue;
                 }
 
-                List<PdgNode> successorsNodes1 = new ArrayList<>();
-                for (final Block successor : block.getSuccessors()) {
-                    successorsNodes1.addAll(findToNodes(successor));
+                path.pop();
+                pending.pop();
+                if (!path.isEmpty()) {
+                    final Block parent = path.peek();
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(block)));
                 }
-                return successorsNodes1;
-
-            case CONDITIONAL_BLOCK:
-                List<PdgNode> successorsNodes2 = new ArrayList<>();
-                for (final Block successor : block.getSuccessors()) {
-                    successorsNodes2.addAll(findToNodes(successor));
+                if (lowLink.get(block).equals(index.get(block))) {
+                    final Set<Block> members = new LinkedHashSet<>();
+                    Block member;
+                    do {
+                        member = component.pop();
+                        onComponent.remove(member);
+                        members.add(member);
+                    } while (member != block);
+                    resolveComponent(members);
                 }
-                return successorsNodes2;
-            case SPECIAL_BLOCK:
-                return List.of(methodPdg.getNode((SpecialBlock) block));
-            case EXCEPTION_BLOCK:
-                ExceptionBlock exceptionBlock = (ExceptionBlock) block;
-                PdgNode node = methodPdg.getNode(exceptionBlock.getNode());
-                if (node == null) {
-                    final List<PdgNode> successorsNodes3 = new ArrayList<>();
-                    for (final Block successor : block.getSuccessors()) {
-                        successorsNodes3.addAll(findToNodes(successor));
+            }
+        }
+
+        /**
+         * Resolves a strongly connected component of transparent blocks whose other neighbours are all resolved.
+         */
+        private void resolveComponent(final Set<Block> members) {
+            final boolean cycle = members.size() > 1 || neighbours(members.iterator().next()).containsAll(members);
+            final List<PdgNode> nodes = new ArrayList<>();
+            for (final Block member : members) {
+                for (final Block neighbour : neighbours(member)) {
+                    if (!members.contains(neighbour)) {
+                        nodes.addAll(cache.get(neighbour));
                     }
-                    return successorsNodes3;
-                } else {
-                    return List.of(node);
                 }
-            default:
-                throw new IllegalStateException("Unexpected value: " + block.getType());
+            }
+            final List<PdgNode> resolved = cycle ? new ArrayList<>(new LinkedHashSet<>(nodes)) : nodes;
+            for (final Block member : members) {
+                cache.put(member, resolved);
+            }
         }
     }
 }
@@ -1,14 +1,20 @@
 package org.checkerframework.flexeme;
 
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.CompactPdg;
 import org.checkerframework.flexeme.pdg.FilePdg;
 import org.checkerframework.flexeme.pdg.MethodPdg;
 import org.checkerframework.flexeme.pdg.PdgEdge;
 import org.checkerframework.flexeme.pdg.PdgNode;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.Set;
 
 /**
  * This class prints a Program Dependence Graph {@link MethodPdg} in the DOT format.
+ * The graphs are printed from their {@link CompactPdg} form.
  */
 public class DotPrinter {
 
@@ -35,7 +41,13 @@ public class DotPrinter {
     }
 
     public static String printEdge(final PdgEdge edge) {
-        return String.format("n%d -> n%d [key=%d, style=%s, color=%s];", edge.from.getId(), edge.to.getId(), edge.type.getKey(), edge.type.getStyle(), edge.type.getColor());
+        final StringBuilder stringBuilder = new StringBuilder();
+        try {
+            DotWriter.appendEdge(stringBuilder, edge.from.getId(), edge.to.getId(), edge.type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return stringBuilder.toString();
     }
 
     /**
@@ -45,28 +57,24 @@ public class DotPrinter {
      * @return The dot file as a string.
      */
     public String printDot(FilePdg filePdg) {
-        final StringBuilder stringBuilder = new StringBuilder("digraph {");
-        stringBuilder.append(System.lineSeparator());
-        int counter = 0;
-        for (final MethodPdg graph : filePdg.getGraphs()) {
-            stringBuilder.append(printGraph(graph, counter));
-            stringBuilder.append(System.lineSeparator());
-            counter++;
-        }
-
-        // Print graph edges. Flexeme expects that edges between graphs are printed separately from the cluster.
-        for (final MethodPdg graph : filePdg.getGraphs()) {
-            stringBuilder.append(printEdges(graph));
-        }
+        return printDot(filePdg.freeze());
+    }
 
-        // Print edges between graphs, local method calls.
-        for (final PdgEdge localCall : filePdg.getLocalCalls()) {
-            stringBuilder.append(printEdge(localCall));
-            stringBuilder.append(System.lineSeparator());
+    /**
+     * Print PDGs graphs as one dot file. The duplicate edges are printed once.
+     * Use {@link DotWriter} to write large graphs to a file.
+     *
+     * @param filePdg The PDGs to print.
+     * @return The dot file as a string.
+     */
+    public String printDot(CompactFilePdg filePdg) {
+        final StringWriter out = new StringWriter();
+        try {
+            DotWriter.write(filePdg, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        stringBuilder.append("}");
-        return stringBuilder.toString();
+        return out.toString();
     }
 
     /**
@@ -76,36 +84,57 @@ public class DotPrinter {
      * @param cluster The cluster number.
      */
     public String printGraph(MethodPdg graph, int cluster) {
+        return printGraph(graph.freeze(), cluster);
+    }
+
+    /**
+     * Print a PDG as a dot subgraph.
+     *
+     * @param graph   The PDG to print.
+     * @param cluster The cluster number.
+     */
+    public String printGraph(CompactPdg graph, int cluster) {
         StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append("subgraph " + "cluster_").append(cluster).append(" {");
         stringBuilder.append(System.lineSeparator());
-        stringBuilder.append(printSubgraphLabel(graph));
-        stringBuilder.append(System.lineSeparator());
-
-        // Print nodes
-        for (final PdgNode node : graph.nodes()) {
-            stringBuilder.append(printNode(node));
+        try {
+            DotWriter.appendSubgraphLabel(stringBuilder, graph.getClassName(), graph.getMethodName(), graph.getParametersType());
             stringBuilder.append(System.lineSeparator());
+            if (graph.getExceededLimit() != null) {
+                DotWriter.appendExceededLimit(stringBuilder, graph.getExceededLimit());
+                stringBuilder.append(System.lineSeparator());
+            }
+
+            // Print nodes
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                DotWriter.appendNode(stringBuilder, graph.getId(node), graph.getLabel(node), graph.getStartLine(node), graph.getEndLine(node));
+                stringBuilder.append(System.lineSeparator());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
         stringBuilder.append("}");
         return stringBuilder.toString();
     }
 
-    private String printEdges(final MethodPdg graph) {
-        StringBuilder stringBuilder = new StringBuilder();
-        for (final PdgEdge edge : graph.edges()) {
-            stringBuilder.append(printEdge(edge));
-            stringBuilder.append(System.lineSeparator());
+    public String printNode(final PdgNode node) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        try {
+            DotWriter.appendNode(stringBuilder, node.getId(), node.toString(), node.getStartLine(), node.getEndLine());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return stringBuilder.toString();
     }
 
-    public String printNode(final PdgNode node) {
-        return String.format("n%d [label=\"%s\", span=\"%d-%d\"];", node.getId(), node.toString().replace("\"", "'"), node.getStartLine(), node.getEndLine());
-    }
-
     public String printSubgraphLabel(final MethodPdg graph) {
-        return String.format("label = \"%s.%s(%s)\";", graph.getClassName(), graph.getMethodName(), String.join(", ", graph.getParametersType()));
+        final StringBuilder stringBuilder = new StringBuilder();
+        try {
+            DotWriter.appendSubgraphLabel(stringBuilder, graph.getClassName(), graph.getMethodName(), graph.getParametersType());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return stringBuilder.toString();
     }
 }
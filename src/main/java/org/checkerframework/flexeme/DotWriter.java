@@ -0,0 +1,171 @@
+package org.checkerframework.flexeme;
+
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.CompactPdg;
+import org.checkerframework.flexeme.pdg.CompactPdgWriter;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes PDGs in the DOT format as they are produced, without building the whole text in memory.
+ * <p>
+ * Flexeme expects the clusters of the methods first, then the edges of every method, then the method calls between
+ * them. The cluster of a method is written by {@link #writeGraph(CompactPdg)}; its edges are kept in the compact PDG
+ * until {@link #writeEdges()}. {@link #close()} ends the graph and closes the output. The
+ * {@link org.checkerframework.flexeme.pdg.PdgBuilder} can write each method to it as soon as the method is built.
+ * The cluster of a method that exceeded its {@link AnalysisBudget} has a {@code budget_exceeded} attribute naming the
+ * limit, and only control edges.
+ */
+public class DotWriter implements CompactPdgWriter, Closeable {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+    private final List<CompactPdg> pendingEdges = new ArrayList<>();
+    private int cluster = 0;
+
+    /**
+     * Starts a DOT graph on a writer. The writer should be buffered.
+     *
+     * @param out the output
+     * @throws IOException if the output cannot be written
+     */
+    public DotWriter(final Writer out) throws IOException {
+        this.out = out;
+        out.write("digraph {");
+        out.write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Starts a DOT graph on a channel, encoded in UTF-8.
+     *
+     * @param channel the output
+     * @throws IOException if the output cannot be written
+     */
+    public DotWriter(final WritableByteChannel channel) throws IOException {
+        this(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1));
+    }
+
+    /**
+     * Writes the PDGs of a file as a complete DOT graph and closes the output.
+     *
+     * @param filePdg the PDGs of the file
+     * @param out     the output
+     * @throws IOException if the output cannot be written
+     */
+    public static void write(final CompactFilePdg filePdg, final Writer out) throws IOException {
+        try (DotWriter writer = new DotWriter(out)) {
+            for (final CompactPdg graph : filePdg.getGraphs()) {
+                writer.writeGraph(graph);
+            }
+            writer.writeEdges();
+            for (int call = 0; call < filePdg.callCount(); call++) {
+                writer.writeCall(filePdg.getCaller(call), filePdg.getCallee(call));
+            }
+        }
+    }
+
+    /**
+     * Writes the cluster of a method PDG, with its nodes. Its edges are written by the next {@link #writeEdges()}.
+     *
+     * @param graph the PDG of the method
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void writeGraph(final CompactPdg graph) throws IOException {
+        out.write("subgraph cluster_");
+        out.write(Integer.toString(cluster++));
+        out.write(" {");
+        out.write(LINE_SEPARATOR);
+        appendSubgraphLabel(out, graph.getClassName(), graph.getMethodName(), graph.getParametersType());
+        out.write(LINE_SEPARATOR);
+        if (graph.getExceededLimit() != null) {
+            appendExceededLimit(out, graph.getExceededLimit());
+            out.write(LINE_SEPARATOR);
+        }
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            appendNode(out, graph.getId(node), graph.getLabel(node), graph.getStartLine(node), graph.getEndLine(node));
+            out.write(LINE_SEPARATOR);
+        }
+        out.write("}");
+        out.write(LINE_SEPARATOR);
+        pendingEdges.add(graph);
+    }
+
+    /**
+     * Writes the edges of the method PDGs written since the last call.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void writeEdges() throws IOException {
+        for (final CompactPdg graph : pendingEdges) {
+            for (final PdgEdge.Type type : PdgEdge.Type.values()) {
+                for (int from = 0; from < graph.nodeCount(); from++) {
+                    for (int i = 0; i < graph.outDegree(from, type); i++) {
+                        appendEdge(out, graph.getId(from), graph.getId(graph.getTarget(from, type, i)), type);
+                        out.write(LINE_SEPARATOR);
+                    }
+                }
+            }
+        }
+        pendingEdges.clear();
+    }
+
+    /**
+     * Writes a method call edge between two method PDGs.
+     *
+     * @param caller the id of the node making the call
+     * @param callee the id of the entry node of the called method
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void writeCall(final long caller, final long callee) throws IOException {
+        appendEdge(out, caller, callee, PdgEdge.Type.CALL);
+        out.write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Ends the DOT graph and closes the output.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.write("}");
+        } finally {
+            out.close();
+        }
+    }
+
+    static void appendEdge(final Appendable out, final long from, final long to, final PdgEdge.Type type) throws IOException {
+        out.append('n').append(Long.toString(from)).append(" -> n").append(Long.toString(to))
+                .append(" [key=").append(Integer.toString(type.getKey()))
+                .append(", style=").append(type.getStyle())
+                .append(", color=").append(type.getColor()).append("];");
+    }
+
+    static void appendNode(final Appendable out, final long id, final String label, final long startLine, final long endLine) throws IOException {
+        // Double quotes would end the label.
+        out.append('n').append(Long.toString(id)).append(" [label=\"")
+                .append(label.indexOf('"') < 0 ? label : label.replace('"', '\''))
+                .append("\", span=\"").append(Long.toString(startLine)).append('-').append(Long.toString(endLine)).append("\"];");
+    }
+
+    static void appendExceededLimit(final Appendable out, final AnalysisBudget.Limit limit) throws IOException {
+        out.append("budget_exceeded = \"").append(limit.name()).append("\";");
+    }
+
+    static void appendSubgraphLabel(final Appendable out, final String className, final String methodName, final List<String> parametersType) throws IOException {
+        out.append("label = \"").append(className).append('.').append(methodName).append('(')
+                .append(String.join(", ", parametersType)).append(")\";");
+    }
+}
@@ -4,26 +4,41 @@ import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.LineMap;
 import com.sun.source.tree.MethodTree;
+import com.sun.source.util.TreePath;
 import com.sun.source.util.TreePathScanner;
 import com.sun.tools.javac.tree.EndPosTable;
 import com.sun.tools.javac.tree.JCTree;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.dataflow.cfg.builder.CFGBuilder;
+import org.checkerframework.flexeme.jfr.CfgBuildEvent;
+import org.checkerframework.flexeme.metrics.ExtractionMetrics;
+import org.checkerframework.flexeme.metrics.MethodMetrics;
+import org.checkerframework.flexeme.metrics.Phase;
+import org.checkerframework.flexeme.metrics.PhaseTimer;
 import org.checkerframework.javacutil.BasicTypeProcessor;
+import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.TreeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Processor for the file compilation. Stores the ASTs of the methods
- * in the file and the line map of the compilation unit.
+ * Processor for the compilation of one or more files. Stores the ASTs of the methods
+ * in the files and the compilation unit each method belongs to.
  */
 @SupportedAnnotationTypes("*")
 public class FileProcessor extends BasicTypeProcessor {
@@ -32,37 +47,63 @@ public class FileProcessor extends BasicTypeProcessor {
 
     private final MethodScanner methodScanner;
     private final Map<MethodTree, ControlFlowGraph> methodAstToCfgMap;
-    private LineMap lineMap;
-    private EndPosTable endPosTable;
+    private final Set<CompilationUnitTree> compilationUnits;
+    private final Map<CompilationUnitTree, CharSequence> sources;
+    private ExtractionMetrics metrics;
 
     public FileProcessor() {
         methodScanner = new MethodScanner();
         methodAstToCfgMap = new HashMap<>();
+        compilationUnits = new LinkedHashSet<>();
+        sources = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Sets where to record the time spent building the CFG of each method, or {@code null} to record nothing.
+     *
+     * @param metrics the metrics of the extraction
+     */
+    public void setMetrics(final ExtractionMetrics metrics) {
+        this.metrics = metrics;
     }
 
     @Override
     protected TreePathScanner<?, ?> createTreePathScanner(CompilationUnitTree root) {
-        if (root instanceof JCTree.JCCompilationUnit) {
-            JCTree.JCCompilationUnit jcCompilationUnit = (JCTree.JCCompilationUnit) root;
-            endPosTable = jcCompilationUnit.endPositions;
-        } else {
-            logger.warn("CompilationUnitTree is not an instance of JCTree.JCCompilationUnit");
-        }
-
-        lineMap = root.getLineMap();
+        compilationUnits.add(root);
         return methodScanner;
     }
 
     @Override
-    public void typeProcessingOver() {
+    @SuppressWarnings("try")
+    public void typeProcess(TypeElement element, TreePath path) {
+        super.typeProcess(element, path);
+
+        // The CFGs are built as soon as a class is analyzed. When several files are compiled together, javac may
+        // desugar a class before the next one is analyzed, so the CFGs cannot wait for {@link #typeProcessingOver()}.
         methodScanner.getMethodToClassAstMap().forEach((methodTree, classTree) -> {
+            if (methodAstToCfgMap.containsKey(methodTree)) {
+                return;
+            }
             // The CFG builder has to be called in a {@link Processor}. Calling the builder outside a processor
             // throws an exception because the Java compiler is terminated.
-            final ControlFlowGraph methodCfg = CFGBuilder.build(currentRoot, methodTree, classTree, processingEnv);
+            final CompilationUnitTree root = methodScanner.getCompilationUnit(methodTree);
+            final MethodMetrics methodMetrics = metrics == null ? null
+                    : metrics.method(ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(methodTree)));
+            final CfgBuildEvent event = new CfgBuildEvent();
+            event.begin();
+            final ControlFlowGraph methodCfg;
+            try (PhaseTimer timer = PhaseTimer.start(methodMetrics, Phase.CFG)) {
+                methodCfg = CFGBuilder.build(root, methodTree, classTree, processingEnv);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.file = root.getSourceFile().getName();
+                event.method = ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(methodTree));
+                event.blocks = methodCfg.getAllBlocks().size();
+                event.commit();
+            }
             methodAstToCfgMap.put(methodTree, methodCfg);
         });
-
-        super.typeProcessingOver();
     }
 
     @Override
@@ -70,22 +111,63 @@ public class FileProcessor extends BasicTypeProcessor {
         return SourceVersion.latestSupported();
     }
 
-    public LineMap getLineMap() {
-        return lineMap;
+    public LineMap getLineMap(final CompilationUnitTree root) {
+        return root.getLineMap();
     }
 
-    public EndPosTable getEndPosTable() {
-        return endPosTable;
+    public EndPosTable getEndPosTable(final CompilationUnitTree root) {
+        if (root instanceof JCTree.JCCompilationUnit) {
+            return ((JCTree.JCCompilationUnit) root).endPositions;
+        }
+        logger.warn("CompilationUnitTree is not an instance of JCTree.JCCompilationUnit");
+        return null;
+    }
+
+    /**
+     * Returns the source code of a compilation unit, read once and shared by the callers.
+     *
+     * @param root the compilation unit
+     * @return the source code, indexed by the positions of the trees
+     */
+    public CharSequence getSource(final CompilationUnitTree root) {
+        return sources.computeIfAbsent(root, unit -> {
+            try {
+                return unit.getSourceFile().getCharContent(true);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read the source of " + unit.getSourceFile().getName(), e);
+            }
+        });
     }
 
     public ClassTree getClassTree(final MethodTree methodTree) {
         return methodScanner.getMethodToClassAstMap().get(methodTree);
     }
 
+    /**
+     * Returns the methods of all the compiled files.
+     *
+     * @return the method trees
+     */
     public Set<MethodTree> getMethodsAst() {
         return methodScanner.getMethodTrees();
     }
 
+    /**
+     * Returns the methods declared in the given compilation unit.
+     *
+     * @param root the compilation unit
+     * @return the method trees declared in the compilation unit
+     */
+    public List<MethodTree> getMethodsAst(final CompilationUnitTree root) {
+        final List<MethodTree> methods = new ArrayList<>();
+        for (final MethodTree methodTree : methodScanner.getMethodTrees()) {
+            if (methodScanner.getCompilationUnit(methodTree) == root) {
+                methods.add(methodTree);
+            }
+        }
+        return methods;
+    }
+
     /**
      * Returns the method tree with the given name.
      * If multiple methods with the same name exists, the first one is returned.
@@ -103,8 +185,23 @@ public class FileProcessor extends BasicTypeProcessor {
         throw new NoSuchElementException("No method with name " + methodName + " exists.");
     }
 
-    public CompilationUnitTree getCompilationUnitTree() {
-        return currentRoot;
+    /**
+     * Returns the compilation units processed, in the order javac analyzed them.
+     *
+     * @return the compilation units
+     */
+    public Set<CompilationUnitTree> getCompilationUnits() {
+        return compilationUnits;
+    }
+
+    /**
+     * Returns the compilation unit in which the method is declared.
+     *
+     * @param methodAst the method
+     * @return the compilation unit of the method
+     */
+    public CompilationUnitTree getCompilationUnit(final MethodTree methodAst) {
+        return methodScanner.getCompilationUnit(methodAst);
     }
 
     public ProcessingEnvironment getProcessingEnvironment() {
@@ -0,0 +1,54 @@
+package org.checkerframework.flexeme;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+
+/**
+ * File manager that reads the sources and the class path from the file system but keeps every output of the
+ * compiler in memory. The outputs are discarded: the PDG extraction only needs the trees of the compilation.
+ */
+public class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    public InMemoryFileManager(final StandardJavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(final Location location, final String className, final JavaFileObject.Kind kind, final FileObject sibling) {
+        return new InMemoryFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind);
+    }
+
+    @Override
+    public FileObject getFileForOutput(final Location location, final String packageName, final String relativeName, final FileObject sibling) {
+        final String path = packageName.isEmpty() ? relativeName : packageName.replace('.', '/') + "/" + relativeName;
+        return new InMemoryFileObject(URI.create("mem:///" + path), JavaFileObject.Kind.OTHER);
+    }
+
+    /**
+     * Output file whose content is written to memory.
+     */
+    private static class InMemoryFileObject extends SimpleJavaFileObject {
+
+        InMemoryFileObject(final URI uri, final Kind kind) {
+            super(uri, kind);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public Writer openWriter() {
+            return new StringWriter();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.checkerframework.flexeme;
 
 import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.util.TreePathScanner;
 import org.checkerframework.javacutil.TreeUtils;
@@ -9,6 +10,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.lang.model.element.ExecutableElement;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -16,10 +18,13 @@ public class MethodScanner extends TreePathScanner<Void, Void> {
     private static final Logger logger = LoggerFactory.getLogger(MethodScanner.class);
 
     final private Map<MethodTree, ClassTree> methodToClassAstMap;
+    final private Map<MethodTree, CompilationUnitTree> methodToCompilationUnitMap;
     private ClassTree classTree;
 
     public MethodScanner() {
-        methodToClassAstMap = new HashMap<>();
+        // The methods are kept in the order of the source, which gives the order of the PDGs and their node ids.
+        methodToClassAstMap = new LinkedHashMap<>();
+        methodToCompilationUnitMap = new HashMap<>();
     }
 
     @Override
@@ -36,6 +41,7 @@ public class MethodScanner extends TreePathScanner<Void, Void> {
 
         if (!(methodAst.getName().toString().equals("<init>") && methodAst.getBody().getStatements().size() == 1)) {
             methodToClassAstMap.put(methodAst, classTree);
+            methodToCompilationUnitMap.put(methodAst, getCurrentPath().getCompilationUnit());
         }
 
         return super.visitMethod(methodAst, p);
@@ -60,6 +66,16 @@ public class MethodScanner extends TreePathScanner<Void, Void> {
         return methodToClassAstMap;
     }
 
+    /**
+     * Returns the compilation unit in which the method is declared.
+     *
+     * @param method the method to look up
+     * @return the compilation unit of the method, or null if the method was not scanned
+     */
+    public CompilationUnitTree getCompilationUnit(final MethodTree method) {
+        return methodToCompilationUnitMap.get(method);
+    }
+
     public Set<MethodTree> getMethodTrees() {
         return methodToClassAstMap.keySet();
     }
@@ -0,0 +1,282 @@
+package org.checkerframework.flexeme;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of the PDGs extracted by the {@link PdgExtractor}, stored on disk.
+ * <p>
+ * An entry is keyed by a hash of the content of the file, the options of the compilation, a fingerprint of the source
+ * path and of the class path, and the {@link #OUTPUT_VERSION} of the extractor. The entries are written to a temporary
+ * file then moved in place, so several processes can share the same cache directory: a reader sees either a complete
+ * entry or no entry.
+ * <p>
+ * The cache is bounded in size. When it grows over its maximum size, the least recently used entries are deleted.
+ * The size of the cache is tracked in memory and recomputed from the directory at each eviction, so the writes of
+ * the other processes are accounted for at the latest at the next eviction.
+ * <p>
+ * The paths are fingerprinted by the size and the modification time of their files, so a change in a file the analyzed
+ * file depends on invalidates the entry of the analyzed file.
+ */
+public class PdgCache {
+    /**
+     * The version of the output of the extractor. Bump it with every change to the extracted PDGs or to their formats,
+     * so that the entries written by the previous extractors are not reused.
+     */
+    public static final int OUTPUT_VERSION = 3;
+
+    private static final Logger logger = LoggerFactory.getLogger(PdgCache.class);
+
+    private static final String ENTRY_SUFFIX = ".dot";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000; // Temporary files older than this are left over by crashed writers.
+    private static final double EVICTION_TARGET = 0.9; // Fraction of the maximum size to shrink the cache to.
+
+    private final Path directory;
+    private final long maxSize;
+    private long size;
+
+    /**
+     * @param directory the directory of the cache, created if it does not exist
+     * @param maxSize   the maximum size of the cache, in bytes
+     */
+    public PdgCache(final Path directory, final long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        try {
+            Files.createDirectories(directory);
+            this.size = listEntries().stream().mapToLong(Entry::getSize).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the PDG cache: " + directory, e);
+        }
+    }
+
+    /**
+     * Computes the key of the PDG of a file.
+     *
+     * @param file       the file to analyze
+     * @param options    the options of the extraction that change its result, e.g., the source level
+     * @param sourcePath source path for the compilation
+     * @param classPath  class path for the compilation
+     * @return the key of the PDG of the file
+     * @throws IOException if the file cannot be read
+     */
+    public String key(final String file, final String options, final String sourcePath, final String classPath) throws IOException {
+        final MessageDigest digest = newDigest();
+        update(digest, Integer.toString(OUTPUT_VERSION));
+        update(digest, options);
+        updatePath(digest, sourcePath);
+        updatePath(digest, classPath);
+        digest.update(Files.readAllBytes(Paths.get(file)));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Adds the fingerprint of a source or class path to a digest: the metadata of its entries and, for the
+     * directories, of the files they contain. Hashing the content of every file on each lookup would cost as much as
+     * the compilation.
+     */
+    private static void updatePath(final MessageDigest digest, final String classOrSourcePath) throws IOException {
+        update(digest, classOrSourcePath);
+        for (final String entry : classOrSourcePath.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            final Path path = Paths.get(entry);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    for (final Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                        update(digest, path.relativize(file).toString());
+                        updateMetadata(digest, file);
+                    }
+                }
+            } else if (Files.exists(path)) {
+                updateMetadata(digest, path);
+            }
+        }
+    }
+
+    private static void updateMetadata(final MessageDigest digest, final Path file) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        update(digest, attributes.size() + ":" + attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Returns the PDG stored with the key, if any.
+     *
+     * @param key the key of the PDG
+     * @return the PDG, or {@code null} if the cache does not contain the key
+     */
+    public String get(final String key) {
+        final Path entry = entryPath(key);
+        try {
+            final String pdg = new String(Files.readAllBytes(entry), StandardCharsets.UTF_8);
+            // Mark the entry as recently used.
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return pdg;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Cannot read the PDG cache entry: " + entry, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a PDG with the key. A failure to write the entry is logged and ignored.
+     *
+     * @param key the key of the PDG
+     * @param pdg the PDG
+     */
+    public void put(final String key, final String pdg) {
+        final Path entry = entryPath(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(entry.getParent());
+            temp = Files.createTempFile(entry.getParent(), key, TEMP_SUFFIX);
+            final byte[] bytes = pdg.getBytes(StandardCharsets.UTF_8);
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            synchronized (this) {
+                size += bytes.length;
+                if (size > maxSize) {
+                    evict();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot write the PDG cache entry: " + entry, e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // The temporary file is deleted by a later eviction.
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache is below its target size.
+     *
+     * @throws IOException if the cache directory cannot be listed
+     */
+    private void evict() throws IOException {
+        final List<Entry> entries = listEntries();
+        entries.sort(Comparator.comparingLong(Entry::getLastModified));
+        long total = entries.stream().mapToLong(Entry::getSize).sum();
+        final long target = (long) (maxSize * EVICTION_TARGET);
+        for (final Entry entry : entries) {
+            if (total <= target) {
+                break;
+            }
+            // Another process may have deleted the entry already.
+            Files.deleteIfExists(entry.path);
+            total -= entry.size;
+        }
+        size = total;
+
+        // Clean up the temporary files of writers that did not finish.
+        final long staleBefore = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                if (file.toString().endsWith(TEMP_SUFFIX) && Files.getLastModifiedTime(file).toMillis() < staleBefore) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (UncheckedIOException | NoSuchFileException e) {
+            // Files deleted by another process while walking.
+        }
+    }
+
+    private List<Entry> listEntries() throws IOException {
+        final List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                if (!file.toString().endsWith(ENTRY_SUFFIX)) {
+                    continue;
+                }
+                try {
+                    final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                } catch (NoSuchFileException e) {
+                    // Evicted by another process.
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // A directory was deleted by another process while walking, the listing is best effort.
+        }
+        return entries;
+    }
+
+    private Path entryPath(final String key) {
+        // Spread the entries over sub-directories to keep the directories small.
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0); // Separator, so that ("ab", "c") and ("a", "bc") have different keys.
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * A cache entry on disk.
+     */
+    private static class Entry {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        Entry(final Path path, final long size, final long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -1,90 +1,603 @@
 package org.checkerframework.flexeme;
 
-import com.sun.tools.javac.file.JavacFileManager;
-import com.sun.tools.javac.util.Context;
-import com.sun.tools.javac.util.List;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import org.checkerframework.flexeme.jfr.CompilationEvent;
+import org.checkerframework.flexeme.jfr.SerializationEvent;
+import org.checkerframework.flexeme.metrics.ExtractionMetrics;
+import org.checkerframework.flexeme.metrics.Phase;
+import org.checkerframework.flexeme.metrics.PhaseTimer;
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
 import org.checkerframework.flexeme.pdg.FilePdg;
+import org.checkerframework.flexeme.pdg.MethodPdgCache;
 import org.checkerframework.flexeme.pdg.PdgBuilder;
 import org.checkerframework.javacutil.UserError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
-import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Extracts a Program Dependency Graph (PDG) from a Java file using the CheckerFramework.
  * The PDG is generated by compiling the file and running a dataflow analysis on each method.
  * The PDG is built to Flexeme PDG's format.
+ * <p>
+ * An extractor reuses its javac file manager between compilations and is not thread-safe.
+ * <p>
+ * An in-memory extractor stops the compilation after the flow analysis and writes no class files. The labels of its
+ * PDG nodes are not desugared, e.g., a lambda keeps its source form instead of becoming a {@code LambdaMetafactory}
+ * call, and generic calls have no erasure casts.
  */
 public class PdgExtractor {
 
     private static final Logger logger = LoggerFactory.getLogger(PdgExtractor.class);
+    private static final String SOURCE_LEVEL = "1.8";
+    private static final long DEFAULT_CACHE_SIZE = 1L << 30; // 1 GiB
+    private static final int DEFAULT_METHOD_CACHE_SIZE = 10_000;
     private final String compileOut;
     private final PdgBuilder pdgBuilder;
 
     private final DotPrinter dotPrinter;
+    private final JavaCompiler javac;
+    private StandardJavaFileManager fileManager;
+    private PdgCache cache;
+    private PdgBuilder.ControlEdges controlEdges = PdgBuilder.ControlEdges.SUCCESSION;
+    private PdgBuilder.LabelStyle labelStyle = PdgBuilder.LabelStyle.PRETTY;
+    private AnalysisBudget analysisBudget = AnalysisBudget.UNLIMITED;
+    private boolean metricsReport = false;
+    private ExtractionMetrics metrics;
 
     public PdgExtractor() {
-        compileOut = "out/";
+        this(false);
+    }
+
+    /**
+     * @param inMemory whether to analyze the files without generating class files on disk
+     */
+    public PdgExtractor(final boolean inMemory) {
+        compileOut = inMemory ? null : "out/";
         pdgBuilder = new PdgBuilder();
         dotPrinter = new DotPrinter();
+        javac = ToolProvider.getSystemJavaCompiler();
     }
 
     public static void main(String[] args) {
-        if (args.length != 3) {
-            logger.error("Usage: java PdgExtractor <file> <sourcePath> <classPath>");
+        boolean server = false;
+        boolean inMemory = false;
+        boolean parallel = false;
+        boolean incremental = false;
+        boolean bitVector = false;
+        boolean singlePass = false;
+        boolean fused = false;
+        boolean controlDependence = false;
+        boolean sourceLabels = false;
+        boolean binary = false;
+        boolean metricsReport = false;
+        long maxAnalysisMillis = 0;
+        long maxTransfers = 0;
+        int maxStoreSize = 0;
+        String cacheDirectory = null;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--server":
+                    server = true;
+                    break;
+                case "--in-memory":
+                    inMemory = true;
+                    break;
+                case "--parallel":
+                    parallel = true;
+                    break;
+                case "--incremental":
+                    incremental = true;
+                    break;
+                case "--bit-vector":
+                    bitVector = true;
+                    break;
+                case "--single-pass-nameflow":
+                    singlePass = true;
+                    break;
+                case "--fused":
+                    fused = true;
+                    break;
+                case "--control-dependence":
+                    controlDependence = true;
+                    break;
+                case "--source-labels":
+                    sourceLabels = true;
+                    break;
+                case "--binary":
+                    binary = true;
+                    break;
+                case "--metrics":
+                    metricsReport = true;
+                    break;
+                case "--max-analysis-millis":
+                    if (i + 1 < args.length) {
+                        maxAnalysisMillis = Long.parseLong(args[++i]);
+                    }
+                    break;
+                case "--max-transfers":
+                    if (i + 1 < args.length) {
+                        maxTransfers = Long.parseLong(args[++i]);
+                    }
+                    break;
+                case "--max-store-size":
+                    if (i + 1 < args.length) {
+                        maxStoreSize = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--cache":
+                    if (i + 1 < args.length) {
+                        cacheDirectory = args[++i];
+                    }
+                    break;
+                default:
+                    positional.add(args[i]);
+            }
+        }
+
+        if ((server && !positional.isEmpty()) || (!server && positional.size() != 3)) {
+            logger.error("Usage: java PdgExtractor [--in-memory] [--parallel] [--incremental] [--bit-vector] [--single-pass-nameflow] [--fused] [--control-dependence] [--source-labels] [--binary] [--metrics] [--max-analysis-millis <n>] [--max-transfers <n>] [--max-store-size <n>] [--cache <dir>] <file> <sourcePath> <classPath>");
+            logger.error("       java PdgExtractor [--in-memory] [--parallel] [--incremental] [--bit-vector] [--single-pass-nameflow] [--fused] [--control-dependence] [--source-labels] [--metrics] [--max-analysis-millis <n>] [--max-transfers <n>] [--max-store-size <n>] [--cache <dir>] --server");
             System.exit(1);
         }
 
-        String file = args[0]; // Relative to the repository e.g., src/java/App.java
-        String sourcePath = args[1];
-        String classPath = args[2];
-        String path_out = "pdg.dot"; // Where to write the PDG.
+        PdgExtractor extractor = new PdgExtractor(inMemory);
+        extractor.setParallel(parallel);
+        if (bitVector) {
+            extractor.setDataflowEngine(PdgBuilder.DataflowEngine.BIT_VECTOR);
+        }
+        if (singlePass) {
+            extractor.setNameFlowEngine(PdgBuilder.NameFlowEngine.SINGLE_PASS);
+        }
+        extractor.setFusedAnalysis(fused);
+        if (controlDependence) {
+            extractor.setControlEdges(PdgBuilder.ControlEdges.DEPENDENCE);
+        }
+        if (sourceLabels) {
+            extractor.setLabelStyle(PdgBuilder.LabelStyle.SOURCE);
+        }
+        extractor.setMetricsReport(metricsReport);
+        extractor.setAnalysisBudget(new AnalysisBudget(maxAnalysisMillis, maxTransfers, maxStoreSize));
+        if (incremental) {
+            extractor.setMethodCache(new MethodPdgCache(DEFAULT_METHOD_CACHE_SIZE));
+        }
+        if (cacheDirectory != null) {
+            extractor.setCache(new PdgCache(Paths.get(cacheDirectory), DEFAULT_CACHE_SIZE));
+        }
+
+        if (server) {
+            PdgServer pdgServer = new PdgServer(extractor);
+            try {
+                pdgServer.serve(new InputStreamReader(System.in, StandardCharsets.UTF_8), new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            } catch (Throwable e) {
+                logger.error("Error while running the PDG extractor server: " + e.getMessage(), e);
+                System.exit(1);
+            }
+            return;
+        }
+
+        String file = positional.get(0); // Relative to the repository e.g., src/java/App.java
+        String sourcePath = positional.get(1);
+        String classPath = positional.get(2);
+        String path_out = binary ? "pdg.bin" : "pdg.dot"; // Where to write the PDG.
 
-        PdgExtractor extractor = new PdgExtractor();
         try {
-            extractor.run(file, sourcePath, classPath, path_out);
+            if (binary) {
+                extractor.runBinary(file, sourcePath, classPath, path_out);
+            } else {
+                extractor.run(file, sourcePath, classPath, path_out);
+            }
         } catch (Throwable e) {
             logger.error("Error while running the PDG extractor: " + e.getMessage(), e);
             System.exit(1);
         }
     }
 
+    /**
+     * Sets whether the PDGs of the methods of a file are built in parallel.
+     *
+     * @param parallel whether to build the method PDGs in parallel
+     * @see PdgBuilder#setParallel(boolean)
+     */
+    public void setParallel(boolean parallel) {
+        pdgBuilder.setParallel(parallel);
+    }
+
+    /**
+     * Sets the engine computing the dataflow edges.
+     *
+     * @param dataflowEngine the dataflow engine
+     * @see PdgBuilder#setDataflowEngine(PdgBuilder.DataflowEngine)
+     */
+    public void setDataflowEngine(PdgBuilder.DataflowEngine dataflowEngine) {
+        pdgBuilder.setDataflowEngine(dataflowEngine);
+    }
+
+    /**
+     * Sets the engine computing the name flow edges.
+     *
+     * @param nameFlowEngine the name flow engine
+     * @see PdgBuilder#setNameFlowEngine(PdgBuilder.NameFlowEngine)
+     */
+    public void setNameFlowEngine(PdgBuilder.NameFlowEngine nameFlowEngine) {
+        pdgBuilder.setNameFlowEngine(nameFlowEngine);
+    }
+
+    /**
+     * Sets whether the dataflow and name flow analyses run in one traversal of the CFG.
+     *
+     * @param fusedAnalysis whether to fuse the dataflow and name flow analyses
+     * @see PdgBuilder#setFusedAnalysis(boolean)
+     */
+    public void setFusedAnalysis(boolean fusedAnalysis) {
+        pdgBuilder.setFusedAnalysis(fusedAnalysis);
+    }
+
+    /**
+     * Sets which control edges are added to the PDGs.
+     *
+     * @param controlEdges the kind of control edges
+     * @see PdgBuilder#setControlEdges(PdgBuilder.ControlEdges)
+     */
+    public void setControlEdges(PdgBuilder.ControlEdges controlEdges) {
+        this.controlEdges = controlEdges;
+        pdgBuilder.setControlEdges(controlEdges);
+    }
+
+    /**
+     * Sets how the labels of the PDG nodes are rendered.
+     *
+     * @param labelStyle the style of the labels
+     * @see PdgBuilder#setLabelStyle(PdgBuilder.LabelStyle)
+     */
+    public void setLabelStyle(PdgBuilder.LabelStyle labelStyle) {
+        this.labelStyle = labelStyle;
+        pdgBuilder.setLabelStyle(labelStyle);
+    }
+
+    /**
+     * Sets the limits of the dataflow and name flow analyses of each method.
+     *
+     * @param analysisBudget the budget of a method
+     * @see PdgBuilder#setAnalysisBudget(AnalysisBudget)
+     */
+    public void setAnalysisBudget(AnalysisBudget analysisBudget) {
+        this.analysisBudget = analysisBudget;
+        pdgBuilder.setAnalysisBudget(analysisBudget);
+    }
+
+    /**
+     * Sets whether the extractions of single files write a report of the resources spent per phase and per method,
+     * next to their PDG, see {@link ExtractionMetrics#reportPath(String)}. The batch extractions write no report.
+     *
+     * @param metricsReport whether to write the metrics report
+     */
+    public void setMetricsReport(boolean metricsReport) {
+        this.metricsReport = metricsReport;
+    }
+
+    /**
+     * Sets where to record the resources spent by the following extractions and compilations, without writing any
+     * report, or {@code null} to record nothing. The metrics of a report take precedence during its extraction.
+     *
+     * @param metrics the metrics to record the extractions in
+     * @see PdgBuilder#setMetrics(ExtractionMetrics)
+     */
+    public void setMetrics(ExtractionMetrics metrics) {
+        this.metrics = metrics;
+        pdgBuilder.setMetrics(metrics);
+    }
+
+    /**
+     * Sets the cache used to reuse the PDGs of the methods that did not change since a previous extraction.
+     * It pays off when the same extractor processes several versions of a file, e.g., in server mode.
+     *
+     * @param methodCache the cache of the method PDGs, or {@code null} to build every method
+     * @see PdgBuilder#setMethodCache(MethodPdgCache)
+     */
+    public void setMethodCache(MethodPdgCache methodCache) {
+        pdgBuilder.setMethodCache(methodCache);
+    }
+
+    /**
+     * Sets the cache to look the PDGs up in before compiling the files, or {@code null} to always compile them.
+     *
+     * @param cache the cache of the PDGs
+     */
+    public void setCache(PdgCache cache) {
+        this.cache = cache;
+    }
+
     public void run(String file, String sourcePath, String classPath, String path_out) {
-        // Compile file.
-        FileProcessor processor = compileFile(file, compileOut, false, sourcePath, classPath);
+        measure(file, path_out, () -> {
+            if (cache == null) {
+                // Without cache, the text of the PDG is not needed in memory, nor the PDGs of the methods already written.
+                streamPdgOnDisk(file, sourcePath, classPath, path_out);
+                return;
+            }
+            String dotGraphForFile = extract(file, sourcePath, classPath);
+            writePdgOnDisk(dotGraphForFile, path_out);
+        });
+    }
+
+    /**
+     * Extracts the PDGs of a file and writes them in the binary format of {@link BinaryPdgWriter}.
+     * The cache is not used.
+     *
+     * @param file       the file to analyze
+     * @param sourcePath source path for the compilation
+     * @param classPath  class path for the compilation
+     * @param path_out   where to write the PDGs
+     */
+    @SuppressWarnings("try")
+    public void runBinary(String file, String sourcePath, String classPath, String path_out) {
+        measure(file, path_out, () -> {
+            CompactFilePdg snapshot = extractSnapshot(file, sourcePath, classPath);
+            SerializationEvent event = new SerializationEvent();
+            event.begin();
+            try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.OUTPUT);
+                 OutputStream out = new BufferedOutputStream(new FileOutputStream(path_out))) {
+                BinaryPdgWriter.write(snapshot, out);
+            } catch (IOException e) {
+                throw new UserError("Error creating binary PDG file (is the path valid?): " + path_out, e);
+            }
+            commit(event, file, "binary", snapshot);
+        });
+    }
+
+    /**
+     * Runs the extraction of a file and, if requested, writes its metrics report next to its PDG.
+     */
+    private void measure(String file, String path_out, Runnable extraction) {
+        if (!metricsReport) {
+            extraction.run();
+            return;
+        }
+        ExtractionMetrics previous = metrics;
+        ExtractionMetrics report = new ExtractionMetrics(List.of(file));
+        setMetrics(report);
+        try {
+            extraction.run();
+            String reportPath = ExtractionMetrics.reportPath(path_out);
+            try (Writer out = new BufferedWriter(new FileWriter(reportPath, StandardCharsets.UTF_8))) {
+                report.write(out);
+            } catch (IOException e) {
+                throw new UserError("Error creating metrics file (is the path valid?): " + reportPath, e);
+            }
+        } finally {
+            setMetrics(previous);
+        }
+    }
 
-        // Build the PDG for each method in the compiled file.
+    /**
+     * Extracts the PDGs of several files compiled together in a single javac task.
+     * Compiling the files together pays the compiler startup and symbol table loading only once.
+     *
+     * @param files      map from the files to analyze to the path where to write their PDG
+     * @param sourcePath source path for the compilation
+     * @param classPath  class path for the compilation
+     */
+    public void run(Map<String, String> files, String sourcePath, String classPath) {
+        if (cache == null) {
+            Map<String, CompactFilePdg> snapshots = extractSnapshots(new ArrayList<>(files.keySet()), sourcePath, classPath);
+            files.forEach((file, path_out) -> writePdgOnDisk(snapshots.get(file), file, path_out));
+            return;
+        }
+        Map<String, String> dotGraphs = extract(new ArrayList<>(files.keySet()), sourcePath, classPath);
+        files.forEach((file, path_out) -> writePdgOnDisk(dotGraphs.get(file), path_out));
+    }
+
+    /**
+     * Extracts the PDG of a file in dot format.
+     *
+     * @param file       the file to analyze
+     * @param sourcePath source path for the compilation
+     * @param classPath  class path for the compilation
+     * @return the PDG of the file in dot format
+     */
+    @SuppressWarnings("try")
+    public String extract(String file, String sourcePath, String classPath) {
+        String key = cacheKey(file, sourcePath, classPath);
+        if (key != null) {
+            String cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        CompactFilePdg snapshot = extractSnapshot(file, sourcePath, classPath);
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        String dotGraph;
+        try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.OUTPUT)) {
+            dotGraph = dotPrinter.printDot(snapshot);
+        }
+        commit(event, file, "dot", snapshot);
+        if (key != null && isComplete(snapshot)) {
+            cache.put(key, dotGraph);
+        }
+        return dotGraph;
+    }
+
+    /**
+     * Extracts the PDGs of several files compiled together in a single javac task.
+     * The files found in the cache, if any, are not compiled.
+     *
+     * @param files      the files to analyze
+     * @param sourcePath source path for the compilation
+     * @param classPath  class path for the compilation
+     * @return map from each file to its PDG in dot format, in the order of {@code files}
+     */
+    public Map<String, String> extract(List<String> files, String sourcePath, String classPath) {
+        Map<String, String> dotGraphs = new LinkedHashMap<>();
+        Map<String, String> keys = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (final String file : files) {
+            String key = cacheKey(file, sourcePath, classPath);
+            String cached = key == null ? null : cache.get(key);
+            dotGraphs.put(file, cached);
+            if (cached == null) {
+                misses.add(file);
+                keys.put(file, key);
+            }
+        }
+        if (misses.isEmpty()) {
+            return dotGraphs;
+        }
+
+        Map<String, CompactFilePdg> snapshots = extractSnapshots(misses, sourcePath, classPath);
+        for (final String file : misses) {
+            SerializationEvent event = new SerializationEvent();
+            event.begin();
+            String dotGraph = dotPrinter.printDot(snapshots.get(file));
+            commit(event, file, "dot", snapshots.get(file));
+            dotGraphs.put(file, dotGraph);
+            String key = keys.get(file);
+            if (key != null && isComplete(snapshots.get(file))) {
+                cache.put(key, dotGraph);
+            }
+        }
+        return dotGraphs;
+    }
+
+    /**
+     * Returns whether no method of a file exceeded the analysis budget. The PDGs of the methods that exceeded it depend
+     * on the load of the machine and are not cached, so a later extraction can build them completely.
+     */
+    private static boolean isComplete(CompactFilePdg snapshot) {
+        return snapshot.getGraphs().stream().allMatch(graph -> graph.getExceededLimit() == null);
+    }
+
+    /**
+     * Extracts the PDGs of a file as a snapshot detached from the compilation: once this method returns, nothing
+     * references the compiler state and it can be garbage-collected. The cache is not used.
+     *
+     * @param file       the file to analyze
+     * @param sourcePath source path for the compilation
+     * @param classPath  class path for the compilation
+     * @return the PDGs of the file
+     */
+    @SuppressWarnings("try")
+    public CompactFilePdg extractSnapshot(String file, String sourcePath, String classPath) {
+        FileProcessor processor = compileFile(file, compileOut, false, sourcePath, classPath);
         FilePdg filePdg = pdgBuilder.buildPdgForFile(processor);
+        try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.FREEZE)) {
+            return filePdg.freeze();
+        }
+    }
+
+    /**
+     * Extracts the PDGs of several files compiled together in a single javac task, as snapshots detached from the
+     * compilation. The cache is not used.
+     *
+     * @param files      the files to analyze
+     * @param sourcePath source path for the compilation
+     * @param classPath  class path for the compilation
+     * @return map from each file to its PDGs, in the order of {@code files}
+     */
+    public Map<String, CompactFilePdg> extractSnapshots(List<String> files, String sourcePath, String classPath) {
+        FileProcessor processor = compileFiles(files, compileOut, false, sourcePath, classPath);
+
+        Map<CompilationUnitTree, FilePdg> filePdgs = pdgBuilder.buildPdgForFiles(processor);
+
+        Map<String, CompactFilePdg> snapshots = new LinkedHashMap<>();
+        for (final String file : files) {
+            snapshots.put(file, filePdgs.get(findCompilationUnit(processor, file)).freeze());
+        }
+        return snapshots;
+    }
 
-        // Write the PDG to disk in dot format.
-        String dotGraphForFile = dotPrinter.printDot(filePdg);
-        writePdgOnDisk(dotGraphForFile, path_out);
+    /**
+     * Returns the cache key of the PDG of a file, or {@code null} if there is no cache or the key cannot be computed.
+     * The key includes every option of the extractor that changes the PDG.
+     *
+     * @param file       the file to analyze
+     * @param sourcePath source path for the compilation
+     * @param classPath  class path for the compilation
+     * @return the key of the PDG of the file in the cache
+     */
+    public String cacheKey(String file, String sourcePath, String classPath) {
+        if (cache == null) {
+            return null;
+        }
+        // The in-memory mode does not desugar the labels, so its PDGs differ from the compiled ones.
+        String options = "source=" + SOURCE_LEVEL + ";inMemory=" + (compileOut == null) + ";controlEdges=" + controlEdges + ";labelStyle=" + labelStyle;
+        if (!analysisBudget.isUnlimited()) {
+            options += ";budget=" + analysisBudget;
+        }
+        try {
+            return cache.key(file, options, sourcePath, classPath);
+        } catch (IOException e) {
+            // Let the compilation report the missing file.
+            logger.warn("Cannot compute the cache key of file: " + file, e);
+            return null;
+        }
     }
 
     /**
      * Compiles a file and returns the processor with the compilation results.
      *
      * @param filepath        path to the file to compile
-     * @param compile_out     where to put the compiled files
+     * @param compile_out     where to put the compiled files, or {@code null} to only analyze the file in memory
      * @param compile_verbose whether to print the compilation output
      * @param sourcePath      source path for the compilation
      * @param classPath       class path for the compilation
      * @return the processor with the compilation results
      */
     public FileProcessor compileFile(String filepath, String compile_out, boolean compile_verbose, String sourcePath, String classPath) {
-        java.util.List<String> arguments = new ArrayList<>();
-        arguments.add("-d");
-        arguments.add(compile_out);
+        return compileFiles(List.of(filepath), compile_out, compile_verbose, sourcePath, classPath);
+    }
+
+    /**
+     * Compiles several files in one compilation task and returns the processor with the compilation results.
+     * Use {@link FileProcessor#getCompilationUnits()} or {@link #findCompilationUnit(FileProcessor, String)}
+     * to tell the results of each file apart.
+     *
+     * @param filepaths       paths to the files to compile
+     * @param compile_out     where to put the compiled files, or {@code null} to only analyze the files in memory
+     * @param compile_verbose whether to print the compilation output
+     * @param sourcePath      source path for the compilation
+     * @param classPath       class path for the compilation
+     * @return the processor with the compilation results
+     */
+    public FileProcessor compileFiles(List<String> filepaths, String compile_out, boolean compile_verbose, String sourcePath, String classPath) {
+        final boolean inMemory = compile_out == null;
+        List<String> arguments = new ArrayList<>();
+        if (!inMemory) {
+            arguments.add("-d");
+            arguments.add(compile_out);
+        }
 
         if (compile_verbose) {
             arguments.add("-verbose");
@@ -97,44 +610,183 @@ public class PdgExtractor {
         arguments.add(classPath);
 
         arguments.add("-source");
-        arguments.add("1.8");
+        arguments.add(SOURCE_LEVEL);
         arguments.add("-target");
-        arguments.add("1.8");
+        arguments.add(SOURCE_LEVEL);
 
         arguments.add("-Xlint:none"); // Ignore warnings
 
-        Context context = new Context();
-        JavacFileManager.preRegister(context); // Necessary to have fileManager before javac.
-        JavacFileManager fileManager = (JavacFileManager) context.get(JavaFileManager.class);
-        Iterable<? extends JavaFileObject> jFile = fileManager.getJavaFileObjectsFromStrings(List.of(filepath));
-
-        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (fileManager == null) {
+            // Reusing the file manager across compilations keeps the archives of the class path open and indexed.
+            fileManager = javac.getStandardFileManager(null, null, null);
+        }
+        Iterable<? extends JavaFileObject> jFiles = fileManager.getJavaFileObjectsFromStrings(filepaths);
 
         StringWriter out = new StringWriter();
 
-        JavaCompiler.CompilationTask task = javac.getTask(out, null, null, arguments, null, jFile);
         FileProcessor processor = new FileProcessor();
-        task.setProcessors(Collections.singleton(processor));
-        boolean result = task.call();
+        processor.setMetrics(metrics);
+        CompilationEvent event = new CompilationEvent();
+        event.begin();
+        PhaseTimer compileTimer = PhaseTimer.start(metrics, Phase.COMPILE);
+        boolean result;
+        if (inMemory) {
+            // Stop after the attribution and flow analysis, the CFGs are built by then. Desugaring and code
+            // generation are skipped and the outputs, if any, stay in memory.
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            JavacTask task = (JavacTask) javac.getTask(out, new InMemoryFileManager(fileManager), diagnostics, arguments, null, jFiles);
+            task.setProcessors(Collections.singleton(processor));
+            try {
+                task.analyze();
+            } catch (IOException e) {
+                throw new RuntimeException("Analysis failed for file(s): " + String.join(", ", filepaths), e);
+            }
+            result = true;
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    out.write(diagnostic.toString());
+                    out.write(System.lineSeparator());
+                    result = false;
+                }
+            }
+        } else {
+            JavaCompiler.CompilationTask task = javac.getTask(out, fileManager, null, arguments, null, jFiles);
+            task.setProcessors(Collections.singleton(processor));
+            result = task.call();
+        }
+        compileTimer.close();
+        event.end();
+        if (event.shouldCommit()) {
+            event.files = String.join(File.pathSeparator, filepaths);
+            event.inMemory = inMemory;
+            event.succeeded = result;
+            event.commit();
+        }
 
         if (!result) {
-            throw new RuntimeException("Compilation failed for file: " + filepath, new Throwable(out.toString()));
+            throw new RuntimeException("Compilation failed for file(s): " + String.join(", ", filepaths), new Throwable(out.toString()));
         }
 
         return processor;
     }
 
+    /**
+     * Returns the compilation unit of a file compiled by {@link #compileFiles(List, String, boolean, String, String)}.
+     *
+     * @param processor the processor with the compilation results
+     * @param filepath  the path of the file, as given to the compiler
+     * @return the compilation unit of the file
+     * @throws IllegalArgumentException if the file was not compiled by the processor
+     */
+    public static CompilationUnitTree findCompilationUnit(FileProcessor processor, String filepath) {
+        final Path path = Paths.get(filepath).toAbsolutePath().normalize();
+        for (final CompilationUnitTree root : processor.getCompilationUnits()) {
+            final Path rootPath = Paths.get(root.getSourceFile().toUri()).toAbsolutePath().normalize();
+            if (rootPath.equals(path)) {
+                return root;
+            }
+        }
+        throw new IllegalArgumentException("No compilation unit for file: " + filepath);
+    }
+
     /**
      * Write the PDG to disk.
      *
      * @param pdg      A string representation of the PDG to write on disk.
      * @param path_out The path where to write the PDG.
      */
-    private void writePdgOnDisk(final String pdg, final String path_out) {
-        try (BufferedWriter out = new BufferedWriter(new FileWriter(path_out))) {
+    @SuppressWarnings("try")
+    void writePdgOnDisk(final String pdg, final String path_out) {
+        try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.OUTPUT);
+             BufferedWriter out = new BufferedWriter(new FileWriter(path_out))) {
             out.write(pdg);
         } catch (IOException e) {
             throw new UserError("Error creating dot file (is the path valid?): all.dot", e);
         }
     }
+
+    /**
+     * Extracts the PDGs of a file and writes each method on disk as soon as it is built, see
+     * {@link PdgBuilder#buildPdgForFile(FileProcessor, org.checkerframework.flexeme.pdg.CompactPdgWriter)}. The
+     * serialization event also covers the build of the PDGs, which is interleaved with their writing.
+     * <p>
+     * The graph is written to a temporary file next to {@code path_out}, moved in place once every method is written.
+     * If the extraction fails, the temporary file is deleted and {@code path_out} is left as it was, rather than
+     * holding a well-formed graph missing methods.
+     *
+     * @param file       the file to analyze
+     * @param sourcePath source path for the compilation
+     * @param classPath  class path for the compilation
+     * @param path_out   where to write the PDGs in dot format
+     */
+    void streamPdgOnDisk(final String file, final String sourcePath, final String classPath, final String path_out) {
+        FileProcessor processor = compileFile(file, compileOut, false, sourcePath, classPath);
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        final Path out = Paths.get(path_out).toAbsolutePath();
+        Path temp = null;
+        final int methods;
+        try {
+            temp = Files.createTempFile(out.getParent(), out.getFileName().toString(), ".tmp");
+            try (DotWriter writer = new DotWriter(new BufferedWriter(new FileWriter(temp.toFile())))) {
+                methods = pdgBuilder.buildPdgForFile(processor, writer);
+            }
+            try {
+                Files.move(temp, out, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, out, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+        } catch (IOException e) {
+            throw new UserError("Error creating dot file (is the path valid?): all.dot", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    logger.warn("Cannot delete the partial dot file: " + temp, e);
+                }
+            }
+        }
+        commit(event, file, "dot", methods);
+    }
+
+    /**
+     * Writes the PDGs of a file on disk, as they are formatted.
+     *
+     * @param pdg      the PDGs of the file
+     * @param file     the file the PDGs were extracted from
+     * @param path_out where to write the PDGs in dot format
+     */
+    @SuppressWarnings("try")
+    void writePdgOnDisk(final CompactFilePdg pdg, final String file, final String path_out) {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.OUTPUT)) {
+            DotWriter.write(pdg, new BufferedWriter(new FileWriter(path_out)));
+        } catch (IOException e) {
+            throw new UserError("Error creating dot file (is the path valid?): all.dot", e);
+        }
+        commit(event, file, "dot", pdg);
+    }
+
+    /**
+     * Ends a serialization event and commits it if it is recorded.
+     */
+    private static void commit(final SerializationEvent event, final String file, final String format, final CompactFilePdg pdg) {
+        commit(event, file, format, pdg.getGraphs().size());
+    }
+
+    /**
+     * Ends a serialization event and commits it if it is recorded.
+     */
+    private static void commit(final SerializationEvent event, final String file, final String format, final int methods) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file;
+            event.format = format;
+            event.methods = methods;
+            event.commit();
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package org.checkerframework.flexeme;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Long-running mode of the {@link PdgExtractor}. The server reads extraction requests as JSON lines and answers each
+ * of them with one JSON line. The JVM, the loaded compiler classes, and the JIT stay warm between requests.
+ * <p>
+ * A request contains the {@code sourcePath} and {@code classPath} for the compilation and either a {@code file} or
+ * a list of {@code files} to compile together. An optional {@code output} writes the PDG of a single file to disk
+ * instead of returning it. The {@code id} of the request, if any, is copied in the response.
+ * <pre>
+ * {"id": 1, "file": "src/App.java", "sourcePath": "src", "classPath": "lib/a.jar"}
+ * {"id": 1, "status": "ok", "dot": "digraph {...}"}
+ * {"id": 2, "files": ["src/A.java", "src/B.java"], "sourcePath": "src", "classPath": ""}
+ * {"id": 2, "status": "ok", "dots": {"src/A.java": "digraph {...}", "src/B.java": "digraph {...}"}}
+ * </pre>
+ * Failed requests are answered with {@code "status": "error"} and a {@code message}. The server stops at the end of
+ * the input.
+ */
+public class PdgServer {
+    private static final Logger logger = LoggerFactory.getLogger(PdgServer.class);
+
+    private final PdgExtractor extractor;
+    private final Gson gson;
+
+    public PdgServer(final PdgExtractor extractor) {
+        this.extractor = extractor;
+        this.gson = new GsonBuilder().disableHtmlEscaping().create();
+    }
+
+    /**
+     * Answers the requests read from {@code in} until the end of the input.
+     *
+     * @param in  where to read the requests from, one JSON object per line
+     * @param out where to write the responses, one JSON object per line
+     * @throws IOException if the requests cannot be read or the responses cannot be written
+     */
+    public void serve(final Reader in, final Writer out) throws IOException {
+        final BufferedReader reader = new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            out.write(gson.toJson(handle(line)));
+            out.write(System.lineSeparator());
+            out.flush();
+        }
+    }
+
+    /**
+     * Processes one request.
+     *
+     * @param line the request as a JSON object
+     * @return the response to the request
+     */
+    Response handle(final String line) {
+        final Request request;
+        try {
+            request = gson.fromJson(line, Request.class);
+        } catch (JsonParseException e) {
+            return Response.error(null, "Malformed request: " + e.getMessage());
+        }
+        if (request == null) {
+            return Response.error(null, "Empty request");
+        }
+
+        final String sourcePath = request.sourcePath == null ? "" : request.sourcePath;
+        final String classPath = request.classPath == null ? "" : request.classPath;
+        try {
+            if (request.file != null) {
+                if (request.output != null) {
+                    extractor.run(request.file, sourcePath, classPath, request.output);
+                    return Response.ok(request.id);
+                }
+                final Response response = Response.ok(request.id);
+                response.dot = extractor.extract(request.file, sourcePath, classPath);
+                return response;
+            } else if (request.files != null) {
+                final Response response = Response.ok(request.id);
+                response.dots = extractor.extract(request.files, sourcePath, classPath);
+                return response;
+            } else {
+                return Response.error(request.id, "The request has neither 'file' nor 'files'");
+            }
+        } catch (Exception | StackOverflowError e) {
+            logger.error("Error while processing request: " + line, e);
+            final Throwable cause = e.getCause();
+            final String message = cause == null ? e.getMessage() : e.getMessage() + System.lineSeparator() + cause.getMessage();
+            return Response.error(request.id, message);
+        }
+    }
+
+    /**
+     * An extraction request, deserialized from JSON.
+     */
+    static class Request {
+        JsonElement id;
+        String file;
+        List<String> files;
+        String sourcePath;
+        String classPath;
+        String output;
+    }
+
+    /**
+     * The response to a request, serialized to JSON. Absent fields are omitted.
+     */
+    static class Response {
+        final JsonElement id;
+        final String status;
+        String message;
+        String dot;
+        Map<String, String> dots;
+
+        private Response(final JsonElement id, final String status) {
+            this.id = id;
+            this.status = status;
+        }
+
+        static Response ok(final JsonElement id) {
+            return new Response(id, "ok");
+        }
+
+        static Response error(final JsonElement id, final String message) {
+            final Response response = new Response(id, "error");
+            response.message = message;
+            return response;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.checkerframework.flexeme;
+
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.ConditionalBlock;
+import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
+import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlock;
+
+import java.util.*;
+
+/**
+ * Post-dominator tree of the blocks of a CFG, computed with the algorithm of Cooper, Harvey and Kennedy ("A Simple,
+ * Fast Dominance Algorithm") on the reversed CFG.
+ * <p>
+ * The tree is rooted at a virtual exit that succeeds the regular and the exceptional exit blocks. The blocks that
+ * cannot reach an exit, in loops that never terminate, also get the virtual exit as successor. Following Ferrante et
+ * al., the virtual exit is a successor of the entry block too, so the blocks executed on every path are control
+ * dependent on the entry block.
+ * <p>
+ * The CFG has an exceptional edge from every method call to the exceptional exit. Such edges are left out, otherwise
+ * every call would decide a branch and the statements after it would depend on it. The exceptional edges kept are those
+ * to a {@code catch} or {@code finally} block and those of the blocks with no regular successor, i.e., {@code throw}.
+ */
+public class PostDominatorTree {
+    /**
+     * The blocks reachable from the entry block, the virtual exit being the index {@code blocks.size()}.
+     */
+    private final List<Block> blocks = new ArrayList<>();
+    private final Map<Block, Integer> indices = new HashMap<>();
+    private final List<List<Integer>> successors = new ArrayList<>();
+    private final int[] immediatePostDominators;
+
+    public PostDominatorTree(final ControlFlowGraph cfg) {
+        // Number the blocks reachable from the entry.
+        final Deque<Block> worklist = new ArrayDeque<>();
+        addBlock(cfg.getEntryBlock(), worklist);
+        while (!worklist.isEmpty()) {
+            for (final Block successor : successors(worklist.remove(), cfg)) {
+                addBlock(successor, worklist);
+            }
+        }
+        final int exit = blocks.size();
+        for (final Block block : blocks) {
+            final List<Integer> blockSuccessors = new ArrayList<>();
+            for (final Block successor : successors(block, cfg)) {
+                blockSuccessors.add(indices.get(successor));
+            }
+            successors.add(blockSuccessors);
+        }
+        successors.get(indices.get(cfg.getEntryBlock())).add(exit);
+        linkToExit(cfg.getRegularExitBlock(), exit);
+        linkToExit(cfg.getExceptionalExitBlock(), exit);
+
+        final List<List<Integer>> predecessors = predecessors(exit);
+        int[] postOrder = postOrder(exit, predecessors);
+        for (int block = 0; block < exit; block++) {
+            if (postOrder[block] < 0) {
+                // The block never reaches an exit.
+                successors.get(block).add(exit);
+                predecessors.get(exit).add(block);
+                postOrder = postOrder(exit, predecessors);
+            }
+        }
+        immediatePostDominators = computeImmediatePostDominators(exit, postOrder);
+    }
+
+    /**
+     * Returns the regular successors of a block, and its exceptional successors handling an exception or, if it has no
+     * regular successor, all of them.
+     */
+    private static Set<Block> successors(final Block block, final ControlFlowGraph cfg) {
+        final Set<Block> successors = new LinkedHashSet<>();
+        if (block instanceof ConditionalBlock) {
+            successors.add(((ConditionalBlock) block).getThenSuccessor());
+            successors.add(((ConditionalBlock) block).getElseSuccessor());
+        } else if (block instanceof SingleSuccessorBlock && ((SingleSuccessorBlock) block).getSuccessor() != null) {
+            successors.add(((SingleSuccessorBlock) block).getSuccessor());
+        }
+        if (block instanceof ExceptionBlock) {
+            final boolean throwing = successors.isEmpty();
+            for (final Set<Block> handlers : ((ExceptionBlock) block).getExceptionalSuccessors().values()) {
+                for (final Block handler : handlers) {
+                    if (throwing || handler != cfg.getExceptionalExitBlock()) {
+                        successors.add(handler);
+                    }
+                }
+            }
+        }
+        return successors;
+    }
+
+    private void addBlock(final Block block, final Deque<Block> worklist) {
+        if (!indices.containsKey(block)) {
+            indices.put(block, blocks.size());
+            blocks.add(block);
+            worklist.add(block);
+        }
+    }
+
+    private void linkToExit(final Block block, final int exit) {
+        final Integer index = indices.get(block);
+        if (index != null) {
+            successors.get(index).add(exit);
+        }
+    }
+
+    private List<List<Integer>> predecessors(final int exit) {
+        final List<List<Integer>> predecessors = new ArrayList<>();
+        for (int block = 0; block <= exit; block++) {
+            predecessors.add(new ArrayList<>());
+        }
+        for (int block = 0; block < exit; block++) {
+            for (final int successor : successors.get(block)) {
+                predecessors.get(successor).add(block);
+            }
+        }
+        return predecessors;
+    }
+
+    /**
+     * Numbers the blocks in the post order of a depth-first search of the reversed CFG from the virtual exit.
+     *
+     * @return the post order number of each block, -1 for the blocks that do not reach the exit
+     */
+    private static int[] postOrder(final int exit, final List<List<Integer>> predecessors) {
+        final int[] order = new int[exit + 1];
+        Arrays.fill(order, -1);
+        final boolean[] visited = new boolean[exit + 1];
+        final Deque<Integer> path = new ArrayDeque<>();
+        final Deque<Iterator<Integer>> pending = new ArrayDeque<>();
+        int next = 0;
+
+        visited[exit] = true;
+        path.push(exit);
+        pending.push(predecessors.get(exit).iterator());
+        while (!path.isEmpty()) {
+            final Iterator<Integer> iterator = pending.peek();
+            if (iterator.hasNext()) {
+                final int predecessor = iterator.next();
+                if (!visited[predecessor]) {
+                    visited[predecessor] = true;
+                    path.push(predecessor);
+                    pending.push(predecessors.get(predecessor).iterator());
+                }
+            } else {
+                pending.pop();
+                order[path.pop()] = next++;
+            }
+        }
+        return order;
+    }
+
+    private int[] computeImmediatePostDominators(final int exit, final int[] postOrder) {
+        final Integer[] reversePostOrder = new Integer[exit + 1];
+        for (int block = 0; block <= exit; block++) {
+            reversePostOrder[block] = block;
+        }
+        Arrays.sort(reversePostOrder, (a, b) -> postOrder[b] - postOrder[a]);
+
+        final int[] ipdom = new int[exit + 1];
+        Arrays.fill(ipdom, -1);
+        ipdom[exit] = exit;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (final int block : reversePostOrder) {
+                if (block == exit) {
+                    continue;
+                }
+                int newIpdom = -1;
+                for (final int successor : successors.get(block)) {
+                    if (ipdom[successor] < 0) {
+                        continue;
+                    }
+                    newIpdom = newIpdom < 0 ? successor : intersect(successor, newIpdom, ipdom, postOrder);
+                }
+                if (ipdom[block] != newIpdom) {
+                    ipdom[block] = newIpdom;
+                    changed = true;
+                }
+            }
+        }
+        return ipdom;
+    }
+
+    private static int intersect(int a, int b, final int[] ipdom, final int[] postOrder) {
+        while (a != b) {
+            while (postOrder[a] < postOrder[b]) {
+                a = ipdom[a];
+            }
+            while (postOrder[b] < postOrder[a]) {
+                b = ipdom[b];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Returns the blocks of the CFG reachable from its entry block, in breadth-first order.
+     *
+     * @return the blocks
+     */
+    public List<Block> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    /**
+     * Returns the immediate post-dominator of a block.
+     *
+     * @param block a block reachable from the entry block
+     * @return the immediate post-dominator, or null if it is the virtual exit
+     */
+    public Block getImmediatePostDominator(final Block block) {
+        final int ipdom = immediatePostDominators[indices.get(block)];
+        return ipdom == blocks.size() ? null : blocks.get(ipdom);
+    }
+
+    /**
+     * Returns the control dependences of the CFG: a block B is control dependent on a block A if A has a successor
+     * from which every path to the exit goes through B, and B does not post-dominate A.
+     *
+     * @return the blocks control dependent on each block with several successors, in breadth-first order
+     */
+    public Map<Block, Set<Block>> getControlDependences() {
+        final int exit = blocks.size();
+        final Map<Block, Set<Block>> dependences = new LinkedHashMap<>();
+        for (int block = 0; block < exit; block++) {
+            for (final int successor : successors.get(block)) {
+                // Walk up the tree from the successor to the post-dominator of the block.
+                int runner = successor;
+                while (runner != immediatePostDominators[block] && runner != exit) {
+                    dependences.computeIfAbsent(blocks.get(block), key -> new LinkedHashSet<>()).add(blocks.get(runner));
+                    runner = immediatePostDominators[runner];
+                }
+            }
+        }
+        return dependences;
+    }
+}
@@ -0,0 +1,262 @@
+package org.checkerframework.flexeme.dataflow;
+
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.VariableTree;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.ConditionalBlock;
+import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
+import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlock;
+import org.checkerframework.dataflow.cfg.node.AssignmentNode;
+import org.checkerframework.dataflow.cfg.node.LocalVariableNode;
+import org.checkerframework.dataflow.cfg.node.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the same dataflow edges as the {@link DataflowTransfer} with bit vectors instead of maps of sets.
+ * <p>
+ * Each local variable reference of the CFG gets a dense index. The last uses of the variables at a program point are
+ * a bit vector over these indexes, and the last uses of a variable are the bits of its references. A use of a variable
+ * links its last uses to the use and replaces them; the merge of two paths is the union of their bit vectors.
+ * <p>
+ * The analysis follows the rules of the {@link org.checkerframework.dataflow.analysis.ForwardAnalysisImpl}: the
+ * assignment targets are not visited as uses, and the exceptional successors of a node receive the last uses from
+ * before the node. The fixpoint is computed without creating the edges, which are created in a final pass over the
+ * blocks.
+ */
+public class BitVectorDataflow {
+    private static final int USE = 0;
+    private static final int ASSIGN = 1;
+
+    private final List<LocalVariableNode> references = new ArrayList<>();
+    private final Map<Node, Integer> referenceIndexes = new IdentityHashMap<>();
+    private final Map<String, Integer> variableIndexes = new HashMap<>();
+    private final List<long[]> variableMasks = new ArrayList<>();
+
+    // The operations of each block, as (operation, reference, variable) triples.
+    private final Map<Block, int[]> operations = new IdentityHashMap<>();
+    private final Map<Block, long[]> inputs = new IdentityHashMap<>();
+    private int words;
+
+    /**
+     * Runs the analysis on the CFG of a method. A new instance is needed for each method.
+     *
+     * @param cfg    the CFG of the method
+     * @param method the method
+     * @return the edges between the variable references
+     */
+    public Set<Edge> analyze(final ControlFlowGraph cfg, final MethodTree method) {
+        // The parameters are the initial last uses, as in {@link DataflowStore#DataflowStore(List)}.
+        final List<Integer> parameters = new ArrayList<>();
+        for (final VariableTree parameter : method.getParameters()) {
+            parameters.add(index(new LocalVariableNode(parameter)));
+        }
+        final List<Block> blocks = collectBlocks(cfg.getEntryBlock());
+        for (final Block block : blocks) {
+            operations.put(block, compile(block));
+        }
+        words = (references.size() + 63) / 64;
+        variableMasks.replaceAll(mask -> Arrays.copyOf(mask, words));
+
+        final long[] initial = new long[words];
+        parameters.forEach(reference -> set(initial, reference));
+        solve(cfg.getEntryBlock(), initial);
+
+        final Set<Edge> edges = new LinkedHashSet<>();
+        final List<VariableReference> values = new ArrayList<>(references.size());
+        references.forEach(reference -> values.add(new VariableReference(reference)));
+        for (final Block block : blocks) {
+            final long[] input = inputs.get(block);
+            if (input != null) {
+                transfer(operations.get(block), input.clone(), edges, values);
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Computes the last uses before each block, until the fixpoint.
+     */
+    private void solve(final Block entry, final long[] initial) {
+        final Deque<Block> worklist = new ArrayDeque<>();
+        final Set<Block> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+        inputs.put(entry, initial);
+        worklist.add(entry);
+        queued.add(entry);
+        while (!worklist.isEmpty()) {
+            final Block block = worklist.poll();
+            queued.remove(block);
+            final long[] input = inputs.get(block);
+            final long[] output = transfer(operations.get(block), input.clone(), null, null);
+
+            for (final Block successor : regularSuccessors(block)) {
+                if (merge(successor, output) && queued.add(successor)) {
+                    worklist.add(successor);
+                }
+            }
+            if (block instanceof ExceptionBlock) {
+                for (final Set<Block> successors : ((ExceptionBlock) block).getExceptionalSuccessors().values()) {
+                    for (final Block successor : successors) {
+                        if (merge(successor, input) && queued.add(successor)) {
+                            worklist.add(successor);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the operations of a block to the last uses. The edges are added to {@code edges} if it is not null.
+     */
+    private long[] transfer(final int[] blockOperations, final long[] lastUses, final Set<Edge> edges, final List<VariableReference> values) {
+        for (int i = 0; i < blockOperations.length; i += 3) {
+            final int reference = blockOperations[i + 1];
+            final long[] mask = variableMasks.get(blockOperations[i + 2]);
+            boolean used = false;
+            for (int w = 0; w < words; w++) {
+                long bits = lastUses[w] & mask[w];
+                if (bits == 0) {
+                    continue;
+                }
+                used = true;
+                if (edges != null) {
+                    while (bits != 0) {
+                        final int last = w * 64 + Long.numberOfTrailingZeros(bits);
+                        edges.add(new Edge(values.get(last), values.get(reference)));
+                        bits &= bits - 1;
+                    }
+                }
+            }
+            // A use of a variable without last uses does not become a last use, an assignment always does.
+            if (used || blockOperations[i] == ASSIGN) {
+                for (int w = 0; w < words; w++) {
+                    lastUses[w] &= ~mask[w];
+                }
+                set(lastUses, reference);
+            }
+        }
+        return lastUses;
+    }
+
+    /**
+     * Adds the last uses to the ones before a block.
+     *
+     * @return true if the last uses before the block changed
+     */
+    private boolean merge(final Block block, final long[] lastUses) {
+        final long[] input = inputs.get(block);
+        if (input == null) {
+            inputs.put(block, lastUses.clone());
+            return true;
+        }
+        boolean changed = false;
+        for (int w = 0; w < words; w++) {
+            final long merged = input[w] | lastUses[w];
+            if (merged != input[w]) {
+                input[w] = merged;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Translates the nodes of a block to the operations on the last uses.
+     */
+    private int[] compile(final Block block) {
+        final List<Node> nodes = block instanceof ExceptionBlock ? List.of(((ExceptionBlock) block).getNode()) : block.getNodes();
+        final List<Integer> blockOperations = new ArrayList<>();
+        for (final Node node : nodes) {
+            // The transfer function is not called on the targets of assignments.
+            if (node.isLValue()) {
+                continue;
+            }
+            if (node instanceof LocalVariableNode) {
+                add(blockOperations, USE, (LocalVariableNode) node);
+            } else if (node instanceof AssignmentNode && ((AssignmentNode) node).getTarget() instanceof LocalVariableNode) {
+                add(blockOperations, ASSIGN, (LocalVariableNode) ((AssignmentNode) node).getTarget());
+            }
+        }
+        return blockOperations.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void add(final List<Integer> blockOperations, final int operation, final LocalVariableNode node) {
+        blockOperations.add(operation);
+        blockOperations.add(index(node));
+        blockOperations.add(variableIndexes.get(node.getName()));
+    }
+
+    private int index(final LocalVariableNode node) {
+        final Integer existing = referenceIndexes.get(node);
+        if (existing != null) {
+            return existing;
+        }
+        final int reference = references.size();
+        references.add(node);
+        referenceIndexes.put(node, reference);
+
+        final int variable = variableIndexes.computeIfAbsent(node.getName(), name -> {
+            variableMasks.add(new long[0]);
+            return variableMasks.size() - 1;
+        });
+        long[] mask = variableMasks.get(variable);
+        if (mask.length <= reference / 64) {
+            mask = Arrays.copyOf(mask, reference / 64 + 1);
+            variableMasks.set(variable, mask);
+        }
+        set(mask, reference);
+        return reference;
+    }
+
+    private static void set(final long[] bits, final int index) {
+        bits[index / 64] |= 1L << (index % 64);
+    }
+
+    private static List<Block> regularSuccessors(final Block block) {
+        if (block instanceof ConditionalBlock) {
+            final ConditionalBlock conditionalBlock = (ConditionalBlock) block;
+            return List.of(conditionalBlock.getThenSuccessor(), conditionalBlock.getElseSuccessor());
+        }
+        if (block instanceof SingleSuccessorBlock && ((SingleSuccessorBlock) block).getSuccessor() != null) {
+            return List.of(((SingleSuccessorBlock) block).getSuccessor());
+        }
+        return List.of();
+    }
+
+    /**
+     * Returns the blocks reachable from the entry block, following the regular and the exceptional successors.
+     */
+    private static List<Block> collectBlocks(final Block entry) {
+        final List<Block> blocks = new ArrayList<>();
+        final Set<Block> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Block> worklist = new ArrayDeque<>();
+        worklist.add(entry);
+        visited.add(entry);
+        while (!worklist.isEmpty()) {
+            final Block block = worklist.poll();
+            blocks.add(block);
+            final List<Block> successors = new ArrayList<>(regularSuccessors(block));
+            if (block instanceof ExceptionBlock) {
+                ((ExceptionBlock) block).getExceptionalSuccessors().values().forEach(successors::addAll);
+            }
+            for (final Block successor : successors) {
+                if (visited.add(successor)) {
+                    worklist.add(successor);
+                }
+            }
+        }
+        return blocks;
+    }
+}
@@ -9,12 +9,11 @@ import org.checkerframework.flexeme.Util;
 import org.checkerframework.javacutil.BugInCF;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * A store that keeps track of
- * 1) when was a variable last used (i.e., declared or referred);
- * 2) the use edges between variable references.
+ * A store that keeps track of when was a variable last used (i.e., declared or referred).
+ * The use edges between variable references are not part of the store, they are added to the collector of the
+ * analysis (see {@link DataflowTransfer#getEdges()}) when they are found.
  */
 public class DataflowStore implements Store<DataflowStore> {
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DataflowStore.class);
@@ -22,15 +21,13 @@ public class DataflowStore implements Store<DataflowStore> {
     // Map from variable name to the last time it was used.
     // The keys are the variable name e.g., 'foo' and the values are pointing to the last instance of that variable in the CFG.
     private final Map<String, Set<VariableReference>> lastUse;
-    private final Set<Edge> edges;
     private final List<LocalVariableNode> parameters; // Initial variable declaration for method parameters.
 
     /**
      * Create a new DataflowStore.
      */
-    public DataflowStore(Map<String, Set<VariableReference>> lastUse, Set<Edge> edges, List<LocalVariableNode> parameters) {
+    public DataflowStore(Map<String, Set<VariableReference>> lastUse, List<LocalVariableNode> parameters) {
         this.lastUse = lastUse;
-        this.edges = edges;
         this.parameters = parameters;
     }
 
@@ -41,14 +38,13 @@ public class DataflowStore implements Store<DataflowStore> {
      */
     public DataflowStore(List<LocalVariableNode> parameters) {
         lastUse = new HashMap<>();
-        edges = new LinkedHashSet<>();
         this.parameters = parameters;
         parameters.forEach(this::addParameter);
     }
 
     @Override
     public DataflowStore copy() {
-        return new DataflowStore(new HashMap<>(lastUse), new HashSet<>(edges), parameters);
+        return new DataflowStore(new HashMap<>(lastUse), parameters);
     }
 
     /**
@@ -67,12 +63,13 @@ public class DataflowStore implements Store<DataflowStore> {
     /**
      * Register a new assignment to a variable. The variable can be already discovered or not.
      *
-     * @param node the assignment node
+     * @param node  the assignment node
+     * @param edges the collector of the edges found
      */
-    public void registerAssignment(final AssignmentNode node) {
+    public void registerAssignment(final AssignmentNode node, final Set<Edge> edges) {
         if (node.getTarget() instanceof LocalVariableNode) {
             // If the target is a variable already declared, we need to add an edge to it.
-            addDataflowEdge((LocalVariableNode) node.getTarget());
+            addDataflowEdge((LocalVariableNode) node.getTarget(), edges);
         }
         lastUse.put(node.getTarget().toString(), Util.newSet(new VariableReference(node.getTarget())));
     }
@@ -80,9 +77,10 @@ public class DataflowStore implements Store<DataflowStore> {
     /**
      * Add a new dataflow edge between the last and current n.
      *
-     * @param n the variable reference
+     * @param n     the variable reference
+     * @param edges the collector of the edges found
      */
-    public void addDataflowEdge(LocalVariableNode n) {
+    public void addDataflowEdge(LocalVariableNode n, Set<Edge> edges) {
         VariableReference value = new VariableReference(n);
 
         // Add a new edge between the last time this variable is used to this current reference.
@@ -102,12 +100,7 @@ public class DataflowStore implements Store<DataflowStore> {
     @Override
     public DataflowStore leastUpperBound(DataflowStore other) {
         final Map<String, Set<VariableReference>> lastUseLub = Util.mergeSetMaps(this.lastUse, other.lastUse);
-
-        final Set<Edge> edgesLub =
-                new HashSet<>(this.edges.size() + other.edges.size());
-        edgesLub.addAll(this.edges);
-        edgesLub.addAll(other.edges);
-        return new DataflowStore(lastUseLub, edgesLub, parameters);
+        return new DataflowStore(lastUseLub, parameters);
     }
 
     private String visualizeLastUseStore(CFGVisualizer<?, DataflowStore, ?> viz) {
@@ -123,17 +116,17 @@ public class DataflowStore implements Store<DataflowStore> {
         return viz.visualizeStoreKeyVal(key, sjStoreVal.toString());
     }
 
-    private CharSequence visualizeEdges(CFGVisualizer<?, DataflowStore, ?> viz) {
-        StringJoiner sjStoreVal = new StringJoiner(System.lineSeparator());
-        for (Edge edge : edges) {
-            sjStoreVal.add(edge.toString());
+    /**
+     * Returns the number of last uses in the store, over all the variables.
+     *
+     * @return the size of the store
+     */
+    public int size() {
+        int size = 0;
+        for (final Set<VariableReference> uses : lastUse.values()) {
+            size += uses.size();
         }
-
-        return viz.visualizeStoreKeyVal("Edges", sjStoreVal.toString());
-    }
-
-    public Set<Edge> getEdges() {
-        return this.edges;
+        return size;
     }
 
     public List<LocalVariableNode> getParameters() {
@@ -153,21 +146,12 @@ public class DataflowStore implements Store<DataflowStore> {
 
     @Override
     public String visualize(CFGVisualizer<?, DataflowStore, ?> viz) {
-        StringJoiner stores = new StringJoiner(System.lineSeparator());
-        stores.add(visualizeLastUseStore(viz));
-        stores.add(visualizeEdges(viz));
-        return stores.toString();
+        return visualizeLastUseStore(viz);
     }
 
     @Override
     public String toString() {
-
-        final String sb = "Variables: " +
-                lastUse.keySet() +
-                System.lineSeparator() +
-                "Edges: " +
-                edges.stream().map(Edge::toString).collect(Collectors.joining(","));
-        return sb;
+        return "Variables: " + lastUse.keySet();
     }
 
 
@@ -176,12 +160,12 @@ public class DataflowStore implements Store<DataflowStore> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DataflowStore that = (DataflowStore) o;
-        return lastUse.equals(that.lastUse) && edges.equals(that.edges) && parameters.equals(that.parameters);
+        return lastUse.equals(that.lastUse) && parameters.equals(that.parameters);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(lastUse, edges, parameters);
+        return Objects.hash(lastUse, parameters);
     }
 
 }
@@ -9,16 +9,52 @@ import org.checkerframework.dataflow.cfg.node.AbstractNodeVisitor;
 import org.checkerframework.dataflow.cfg.node.AssignmentNode;
 import org.checkerframework.dataflow.cfg.node.LocalVariableNode;
 import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.flexeme.AnalysisBudget;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Transfer rules for the dataflow analysis.
+ * The edges found by the transfer rules are collected in an append-only set, so the stores only hold the last uses
+ * of the variables. A transfer function is meant to analyze one method.
  */
 public class DataflowTransfer extends AbstractNodeVisitor<
         TransferResult<VariableReference, DataflowStore>, TransferInput<VariableReference, DataflowStore>>
         implements ForwardTransferFunction<VariableReference, DataflowStore> {
 
+    private final Set<Edge> edges = new LinkedHashSet<>();
+    private long transferCount = 0;
+    private AnalysisBudget.Meter budget;
+
+    /**
+     * Returns the edges found during the analysis, on every path of the method.
+     *
+     * @return the edges between the variable references
+     */
+    public Set<Edge> getEdges() {
+        return edges;
+    }
+
+    /**
+     * Returns how many times a transfer rule was applied to a node, i.e., the number of nodes visited by the analysis.
+     *
+     * @return the number of transfers
+     */
+    public long getTransferCount() {
+        return transferCount;
+    }
+
+    /**
+     * Sets the meter checking the analysis against the budget of the method, or {@code null} for no budget.
+     *
+     * @param budget the meter of the method
+     */
+    public void setBudget(final AnalysisBudget.Meter budget) {
+        this.budget = budget;
+    }
+
     @Override
     public DataflowStore initialStore(UnderlyingAST underlyingAST, List<LocalVariableNode> parameters) {
         return new DataflowStore(parameters);
@@ -27,6 +63,11 @@ public class DataflowTransfer extends AbstractNodeVisitor<
     @Override
     public RegularTransferResult<VariableReference, DataflowStore> visitNode(
             Node n, TransferInput<VariableReference, DataflowStore> p) {
+        // Every visitor method ends here.
+        transferCount++;
+        if (budget != null) {
+            budget.transfer(p.getRegularStore()::size);
+        }
         return new RegularTransferResult<>(null, p.getRegularStore());
     }
 
@@ -34,7 +75,7 @@ public class DataflowTransfer extends AbstractNodeVisitor<
     public TransferResult<VariableReference, DataflowStore> visitAssignment(final AssignmentNode node, final TransferInput<VariableReference, DataflowStore> transferInput) {
         RegularTransferResult<VariableReference, DataflowStore> transferResult =
                 (RegularTransferResult<VariableReference, DataflowStore>) super.visitAssignment(node, transferInput);
-        transferResult.getRegularStore().registerAssignment(node);
+        transferResult.getRegularStore().registerAssignment(node, edges);
         return transferResult;
     }
 
@@ -42,8 +83,23 @@ public class DataflowTransfer extends AbstractNodeVisitor<
     public TransferResult<VariableReference, DataflowStore> visitLocalVariable(LocalVariableNode node, TransferInput<VariableReference, DataflowStore> transferInput) {
         RegularTransferResult<VariableReference, DataflowStore> transferResult =
                 (RegularTransferResult<VariableReference, DataflowStore>) super.visitLocalVariable(node, transferInput);
-        transferResult.getRegularStore().addDataflowEdge(node);
+        transferResult.getRegularStore().addDataflowEdge(node, edges);
         return transferResult;
     }
 
+    /**
+     * Updates a store as {@link #visitAssignment} and {@link #visitLocalVariable} do, for the analyses that carry
+     * a {@link DataflowStore} inside another store. The edges found are added to {@link #getEdges()}.
+     *
+     * @param node  the node
+     * @param store the store to update
+     */
+    public void apply(final Node node, final DataflowStore store) {
+        if (node instanceof AssignmentNode) {
+            store.registerAssignment((AssignmentNode) node, edges);
+        } else if (node instanceof LocalVariableNode) {
+            store.addDataflowEdge((LocalVariableNode) node, edges);
+        }
+    }
+
 }
@@ -0,0 +1,84 @@
+package org.checkerframework.flexeme.fused;
+
+import org.checkerframework.dataflow.analysis.Store;
+import org.checkerframework.dataflow.cfg.visualize.CFGVisualizer;
+import org.checkerframework.dataflow.expression.JavaExpression;
+import org.checkerframework.flexeme.dataflow.DataflowStore;
+import org.checkerframework.flexeme.nameflow.NameFlowStore;
+import org.checkerframework.javacutil.BugInCF;
+
+import java.util.Objects;
+
+/**
+ * Product of the dataflow and name flow stores, to run both analyses in one traversal of the CFG.
+ * Each operation of the store is the operation of its two components.
+ */
+public class FusedStore implements Store<FusedStore> {
+    private final DataflowStore dataflowStore;
+    private final NameFlowStore nameFlowStore;
+
+    public FusedStore(final DataflowStore dataflowStore, final NameFlowStore nameFlowStore) {
+        this.dataflowStore = dataflowStore;
+        this.nameFlowStore = nameFlowStore;
+    }
+
+    public DataflowStore getDataflowStore() {
+        return dataflowStore;
+    }
+
+    public NameFlowStore getNameFlowStore() {
+        return nameFlowStore;
+    }
+
+    /**
+     * Returns the size of the store, the sum of the sizes of its components.
+     *
+     * @return the size of the store
+     */
+    public int size() {
+        return dataflowStore.size() + nameFlowStore.size();
+    }
+
+    @Override
+    public FusedStore copy() {
+        return new FusedStore(dataflowStore.copy(), nameFlowStore.copy());
+    }
+
+    @Override
+    public FusedStore leastUpperBound(final FusedStore other) {
+        return new FusedStore(dataflowStore.leastUpperBound(other.dataflowStore), nameFlowStore.leastUpperBound(other.nameFlowStore));
+    }
+
+    @Override
+    public FusedStore widenedUpperBound(final FusedStore previous) {
+        throw new BugInCF("wub of FusedStore get called!");
+    }
+
+    @Override
+    public boolean canAlias(final JavaExpression a, final JavaExpression b) {
+        return true;
+    }
+
+    @Override
+    public String visualize(final CFGVisualizer<?, FusedStore, ?> viz) {
+        throw new RuntimeException("Visualization not supported for FusedStore.");
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FusedStore that = (FusedStore) o;
+        return dataflowStore.equals(that.dataflowStore) && nameFlowStore.equals(that.nameFlowStore);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dataflowStore, nameFlowStore);
+    }
+
+    @Override
+    public String toString() {
+        return dataflowStore + System.lineSeparator() + nameFlowStore;
+    }
+}
@@ -0,0 +1,79 @@
+package org.checkerframework.flexeme.fused;
+
+import org.checkerframework.dataflow.analysis.ForwardTransferFunction;
+import org.checkerframework.dataflow.analysis.RegularTransferResult;
+import org.checkerframework.dataflow.analysis.TransferInput;
+import org.checkerframework.dataflow.analysis.TransferResult;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.dataflow.cfg.node.AbstractNodeVisitor;
+import org.checkerframework.dataflow.cfg.node.LocalVariableNode;
+import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.flexeme.AnalysisBudget;
+import org.checkerframework.flexeme.dataflow.DataflowTransfer;
+import org.checkerframework.flexeme.dataflow.Edge;
+import org.checkerframework.flexeme.dataflow.VariableReference;
+import org.checkerframework.flexeme.nameflow.NameFlowTransfer;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Transfer rules of the fused analysis: the rules of {@link DataflowTransfer} and {@link NameFlowTransfer} applied
+ * to the components of a {@link FusedStore}. The analysis computes no values, the {@link VariableReference} type
+ * parameter only satisfies the Checker Framework API.
+ * A transfer function is meant to analyze one method.
+ */
+public class FusedTransfer extends AbstractNodeVisitor<
+        TransferResult<VariableReference, FusedStore>, TransferInput<VariableReference, FusedStore>>
+        implements ForwardTransferFunction<VariableReference, FusedStore> {
+
+    private final DataflowTransfer dataflowTransfer = new DataflowTransfer();
+    private final NameFlowTransfer nameFlowTransfer = new NameFlowTransfer();
+    private long transferCount = 0;
+    private AnalysisBudget.Meter budget;
+
+    /**
+     * Sets the meter checking the analysis against the budget of the method, or {@code null} for no budget.
+     *
+     * @param budget the meter of the method
+     */
+    public void setBudget(final AnalysisBudget.Meter budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public FusedStore initialStore(final UnderlyingAST underlyingAST, final List<LocalVariableNode> parameters) {
+        return new FusedStore(dataflowTransfer.initialStore(underlyingAST, parameters), nameFlowTransfer.initialStore(underlyingAST, parameters));
+    }
+
+    @Override
+    public TransferResult<VariableReference, FusedStore> visitNode(final Node node, final TransferInput<VariableReference, FusedStore> transferInput) {
+        transferCount++;
+        final FusedStore store = transferInput.getRegularStore();
+        if (budget != null) {
+            budget.transfer(store::size);
+        }
+        dataflowTransfer.apply(node, store.getDataflowStore());
+        nameFlowTransfer.apply(node, store.getNameFlowStore());
+        return new RegularTransferResult<>(null, store);
+    }
+
+    /**
+     * Returns how many times the transfer rules were applied to a node.
+     *
+     * @return the number of transfers
+     */
+    public long getTransferCount() {
+        return transferCount;
+    }
+
+    /**
+     * Returns the dataflow edges found during the analysis.
+     *
+     * @return the edges between the variable references
+     * @see DataflowTransfer#getEdges()
+     */
+    public Set<Edge> getDataflowEdges() {
+        return dataflowTransfer.getEdges();
+    }
+}
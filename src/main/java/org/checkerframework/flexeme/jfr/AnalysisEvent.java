@@ -0,0 +1,37 @@
+package org.checkerframework.flexeme.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A dataflow, name flow or fused analysis of a method, with the conversion of its results to PDG edges.
+ */
+@Name("org.checkerframework.flexeme.Analysis")
+@Label("Analysis")
+@Category({"Flexeme", "PDG Extraction"})
+@Description("Analysis of a method adding the edges of a kind to its PDG")
+@StackTrace(false)
+public class AnalysisEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Method")
+    @Description("The qualified name of the method, with the types of its parameters")
+    public String method;
+
+    @Label("Analysis")
+    @Description("DATAFLOW, NAMEFLOW or FUSED")
+    public String analysis;
+
+    @Label("Transfers")
+    @Description("How many times the fixpoint applied its transfer function to a CFG node, or -1 for the engines without fixpoint and the analyses over budget")
+    public long transfers;
+
+    @Label("Exceeded Limit")
+    @Description("TIME, TRANSFERS or STORE_SIZE if the analysis exceeded the budget of the method and was stopped, or null")
+    public String exceededLimit;
+}
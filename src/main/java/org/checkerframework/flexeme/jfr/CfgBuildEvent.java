@@ -0,0 +1,29 @@
+package org.checkerframework.flexeme.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The building of the CFG of a method by {@code CFGBuilder.build}, during the compilation.
+ */
+@Name("org.checkerframework.flexeme.CfgBuild")
+@Label("CFG Build")
+@Category({"Flexeme", "PDG Extraction"})
+@Description("Building of the control flow graph of a method")
+@StackTrace(false)
+public class CfgBuildEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Method")
+    @Description("The qualified name of the method, with the types of its parameters")
+    public String method;
+
+    @Label("Blocks")
+    @Description("The number of blocks of the CFG")
+    public int blocks;
+}
@@ -0,0 +1,29 @@
+package org.checkerframework.flexeme.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The javac task compiling the files of an extraction, CFG building included.
+ */
+@Name("org.checkerframework.flexeme.Compilation")
+@Label("Compilation")
+@Category({"Flexeme", "PDG Extraction"})
+@Description("Compilation of the files to extract the PDGs of")
+@StackTrace(false)
+public class CompilationEvent extends Event {
+    @Label("Files")
+    @Description("The compiled files, separated by the path separator")
+    public String files;
+
+    @Label("In Memory")
+    @Description("Whether the compilation stopped after the flow analysis")
+    public boolean inMemory;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,29 @@
+package org.checkerframework.flexeme.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The formatting of the PDGs of a file, and their writing if they are written on disk.
+ */
+@Name("org.checkerframework.flexeme.Serialization")
+@Label("Serialization")
+@Category({"Flexeme", "PDG Extraction"})
+@Description("Formatting of the PDGs of a file")
+@StackTrace(false)
+public class SerializationEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Format")
+    @Description("dot or binary")
+    public String format;
+
+    @Label("Methods")
+    @Description("The number of method PDGs")
+    public int methods;
+}
@@ -0,0 +1,100 @@
+package org.checkerframework.flexeme.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The resources spent by an extraction, per {@link Phase} and per method, and the sizes of the PDGs built.
+ * <p>
+ * The extraction phases record their totals here, the phases of a method are recorded in its {@link MethodMetrics}
+ * and added to the totals. The methods are measured on the thread building them, so the metrics can be collected
+ * while the methods are built in parallel; the totals then exceed the elapsed time of the extraction.
+ * The metrics are written as a JSON report by {@link #write(Writer)}.
+ */
+public final class ExtractionMetrics extends PhaseMetrics {
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+
+    private final List<String> files;
+    private final transient Map<String, MethodMetrics> methods = new LinkedHashMap<>(); // Written as a list.
+
+    /**
+     * @param files the files of the extraction
+     */
+    public ExtractionMetrics(final List<String> files) {
+        this.files = new ArrayList<>(files);
+    }
+
+    /**
+     * Returns the path of the report of an extraction, next to its PDG: {@code pdg.dot} is reported in
+     * {@code pdg.metrics.json}.
+     *
+     * @param pdgPath the path of the PDG
+     * @return the path of the report
+     */
+    public static String reportPath(final String pdgPath) {
+        final int dot = pdgPath.lastIndexOf('.');
+        final int separator = Math.max(pdgPath.lastIndexOf('/'), pdgPath.lastIndexOf('\\'));
+        return (dot > separator + 1 ? pdgPath.substring(0, dot) : pdgPath) + ".metrics.json";
+    }
+
+    /**
+     * Returns the metrics of a method, created on first use.
+     *
+     * @param name the qualified name of the method, with the types of its parameters
+     * @return the metrics of the method
+     */
+    public synchronized MethodMetrics method(final String name) {
+        return methods.computeIfAbsent(name, key -> new MethodMetrics(this, key));
+    }
+
+    /**
+     * Returns the metrics of the methods, in the order they were first measured.
+     *
+     * @return the metrics of the methods
+     */
+    public synchronized Collection<MethodMetrics> getMethods() {
+        return new ArrayList<>(methods.values());
+    }
+
+    /**
+     * Writes the report of the extraction as a JSON object with the files, the totals, the phases and the methods.
+     *
+     * @param out the output, not closed
+     * @throws IOException if the output cannot be written
+     */
+    public synchronized void write(final Writer out) throws IOException {
+        long nodes = 0;
+        long edges = 0;
+        long cfgBlocks = 0;
+        int overBudget = 0;
+        for (final MethodMetrics method : methods.values()) {
+            nodes += method.getNodes();
+            edges += method.getEdges();
+            cfgBlocks += method.getCfgBlocks();
+            if (method.getExceededLimit() != null) {
+                overBudget++;
+            }
+        }
+        final JsonObject totals = new JsonObject();
+        totals.addProperty("methods", methods.size());
+        totals.addProperty("nodes", nodes);
+        totals.addProperty("edges", edges);
+        totals.addProperty("cfgBlocks", cfgBlocks);
+        totals.addProperty("overBudget", overBudget);
+
+        final JsonObject report = GSON.toJsonTree(this).getAsJsonObject();
+        report.add("totals", totals);
+        report.add("methods", GSON.toJsonTree(methods.values()));
+        GSON.toJson(report, out);
+        out.flush();
+    }
+}
@@ -0,0 +1,134 @@
+package org.checkerframework.flexeme.metrics;
+
+import org.checkerframework.flexeme.AnalysisBudget;
+
+/**
+ * The sizes of the PDG of a method and the resources spent building it. The phases of a method are also added to
+ * the totals of the extraction.
+ */
+public final class MethodMetrics extends PhaseMetrics {
+    private final transient ExtractionMetrics extraction;
+    private final String name;
+    private int cfgBlocks;
+    private int nodes;
+    private int edges;
+    private boolean cached;
+    // Transfer function applications of the fixpoint analyses, absent for the other engines.
+    private Long dataflowTransfers;
+    private Long nameFlowTransfers;
+    private Long fusedTransfers;
+    private AnalysisBudget.Limit exceededLimit;
+
+    MethodMetrics(final ExtractionMetrics extraction, final String name) {
+        this.extraction = extraction;
+        this.name = name;
+    }
+
+    @Override
+    public void record(final Phase phase, final long wallNanos, final long cpuNanos, final long allocatedBytes) {
+        super.record(phase, wallNanos, cpuNanos, allocatedBytes);
+        extraction.record(phase, wallNanos, cpuNanos, allocatedBytes);
+    }
+
+    /**
+     * Returns the qualified name of the method, with the types of its parameters.
+     *
+     * @return the name of the method
+     */
+    public String getName() {
+        return name;
+    }
+
+    public int getCfgBlocks() {
+        return cfgBlocks;
+    }
+
+    public void setCfgBlocks(final int cfgBlocks) {
+        this.cfgBlocks = cfgBlocks;
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+
+    public int getEdges() {
+        return edges;
+    }
+
+    /**
+     * Sets the size of the PDG of the method.
+     *
+     * @param nodes the number of nodes
+     * @param edges the number of edges, duplicates included
+     */
+    public void setPdgSize(final int nodes, final int edges) {
+        this.nodes = nodes;
+        this.edges = edges;
+    }
+
+    /**
+     * Returns whether the edges of the method came from the method cache, without running the analyses.
+     *
+     * @return whether the method was cached
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(final boolean cached) {
+        this.cached = cached;
+    }
+
+    /**
+     * Returns how many times the fixpoint dataflow analysis applied its transfer function to a CFG node. Divided
+     * by the number of CFG nodes, it tells how many iterations the fixpoint needed.
+     *
+     * @return the number of transfers, or {@code null} if the fixpoint dataflow analysis did not run
+     */
+    public Long getDataflowTransfers() {
+        return dataflowTransfers;
+    }
+
+    public void setDataflowTransfers(final long dataflowTransfers) {
+        this.dataflowTransfers = dataflowTransfers;
+    }
+
+    /**
+     * Returns how many times the fixpoint name flow analysis applied its transfer function to a CFG node.
+     *
+     * @return the number of transfers, or {@code null} if the fixpoint name flow analysis did not run
+     */
+    public Long getNameFlowTransfers() {
+        return nameFlowTransfers;
+    }
+
+    public void setNameFlowTransfers(final long nameFlowTransfers) {
+        this.nameFlowTransfers = nameFlowTransfers;
+    }
+
+    /**
+     * Returns how many times the fused analysis applied its transfer function to a CFG node.
+     *
+     * @return the number of transfers, or {@code null} if the fused analysis did not run
+     */
+    public Long getFusedTransfers() {
+        return fusedTransfers;
+    }
+
+    public void setFusedTransfers(final long fusedTransfers) {
+        this.fusedTransfers = fusedTransfers;
+    }
+
+    /**
+     * Returns the limit of the analysis budget exceeded by the method, whose PDG then has control edges only.
+     *
+     * @return the limit exceeded, or {@code null} if the analyses completed
+     */
+    public AnalysisBudget.Limit getExceededLimit() {
+        return exceededLimit;
+    }
+
+    public void setExceededLimit(final AnalysisBudget.Limit exceededLimit) {
+        this.exceededLimit = exceededLimit;
+    }
+}
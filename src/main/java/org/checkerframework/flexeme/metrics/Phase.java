@@ -0,0 +1,47 @@
+package org.checkerframework.flexeme.metrics;
+
+/**
+ * The phases of an extraction measured by {@link ExtractionMetrics}.
+ */
+public enum Phase {
+    /**
+     * The javac task, from parsing to code generation. It includes the {@link #CFG} phase.
+     */
+    COMPILE,
+    /**
+     * {@code CFGBuilder.build}, run by the processor while javac analyzes the classes.
+     */
+    CFG,
+    /**
+     * The scan of the PDG elements of a method, the index of their CFG nodes and the creation of the PDG nodes.
+     */
+    ELEMENTS,
+    /**
+     * The control edges, added by the {@link org.checkerframework.flexeme.CfgTraverser}.
+     */
+    CONTROL,
+    /**
+     * The dataflow analysis.
+     */
+    DATAFLOW,
+    /**
+     * The name flow analysis.
+     */
+    NAMEFLOW,
+    /**
+     * The dataflow and name flow analyses, when they are fused.
+     */
+    FUSED,
+    /**
+     * The search for the method calls between the methods of a file.
+     */
+    CALLS,
+    /**
+     * The copy of the PDGs to their compact form, which renders the labels of the nodes.
+     */
+    FREEZE,
+    /**
+     * The formatting of the PDGs, e.g., by the {@link org.checkerframework.flexeme.DotPrinter}, and their writing.
+     */
+    OUTPUT
+}
@@ -0,0 +1,39 @@
+package org.checkerframework.flexeme.metrics;
+
+/**
+ * The resources spent in a phase, summed over its runs. A time or a number of bytes is -1 if the JVM cannot measure it.
+ */
+public final class PhaseMeasurement {
+    private long count;
+    private long wallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+
+    void add(final long wallNanos, final long cpuNanos, final long allocatedBytes) {
+        count++;
+        this.wallNanos += wallNanos;
+        this.cpuNanos = this.cpuNanos < 0 || cpuNanos < 0 ? -1 : this.cpuNanos + cpuNanos;
+        this.allocatedBytes = this.allocatedBytes < 0 || allocatedBytes < 0 ? -1 : this.allocatedBytes + allocatedBytes;
+    }
+
+    /**
+     * Returns how many times the phase ran.
+     *
+     * @return the number of runs
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
@@ -0,0 +1,33 @@
+package org.checkerframework.flexeme.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The resources spent in each phase by an extraction or a method.
+ */
+public abstract class PhaseMetrics {
+    private final Map<Phase, PhaseMeasurement> phases = new EnumMap<>(Phase.class);
+
+    /**
+     * Records a run of a phase. Usually called by {@link PhaseTimer#close()}.
+     *
+     * @param phase          the phase
+     * @param wallNanos      the elapsed time
+     * @param cpuNanos       the CPU time of the thread, or -1
+     * @param allocatedBytes the bytes allocated by the thread, or -1
+     */
+    public synchronized void record(final Phase phase, final long wallNanos, final long cpuNanos, final long allocatedBytes) {
+        phases.computeIfAbsent(phase, key -> new PhaseMeasurement()).add(wallNanos, cpuNanos, allocatedBytes);
+    }
+
+    /**
+     * Returns the resources spent in a phase.
+     *
+     * @param phase the phase
+     * @return the measurement, or {@code null} if the phase did not run
+     */
+    public synchronized PhaseMeasurement get(final Phase phase) {
+        return phases.get(phase);
+    }
+}
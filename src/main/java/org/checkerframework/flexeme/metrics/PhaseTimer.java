@@ -0,0 +1,74 @@
+package org.checkerframework.flexeme.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures a run of a phase on the current thread, from its creation to {@link #close()}:
+ * <pre>{@code
+ * try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.DATAFLOW)) {
+ *     ...
+ * }
+ * }</pre>
+ * The CPU time and the allocated bytes come from the {@link ThreadMXBean}, so the phase must not hand its work over
+ * to other threads. Without metrics, the timer measures nothing.
+ */
+public final class PhaseTimer implements AutoCloseable {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final PhaseTimer NONE = new PhaseTimer(null, null);
+
+    private final PhaseMetrics metrics;
+    private final Phase phase;
+    private final long startWall;
+    private final long startCpu;
+    private final long startAllocated;
+
+    private PhaseTimer(final PhaseMetrics metrics, final Phase phase) {
+        this.metrics = metrics;
+        this.phase = phase;
+        if (metrics == null) {
+            startWall = startCpu = startAllocated = 0;
+        } else {
+            startAllocated = allocatedBytes();
+            startCpu = cpuTime();
+            startWall = System.nanoTime();
+        }
+    }
+
+    /**
+     * Starts measuring a phase.
+     *
+     * @param metrics where to record the phase, or {@code null} to measure nothing
+     * @param phase   the phase
+     * @return the timer to close at the end of the phase
+     */
+    public static PhaseTimer start(final PhaseMetrics metrics, final Phase phase) {
+        return metrics == null ? NONE : new PhaseTimer(metrics, phase);
+    }
+
+    @Override
+    public void close() {
+        if (metrics == null) {
+            return;
+        }
+        final long wall = System.nanoTime() - startWall;
+        final long cpu = startCpu < 0 ? -1 : cpuTime() - startCpu;
+        final long allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+        metrics.record(phase, wall, cpu, allocated);
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    @SuppressWarnings("deprecation") // Thread#threadId() needs Java 19.
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
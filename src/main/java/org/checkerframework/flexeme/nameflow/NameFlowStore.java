@@ -53,8 +53,15 @@ public class NameFlowStore implements Store<NameFlowStore> {
      * @param nameRecord The new nameRecord to associate
      */
     public void add(final Node uid, final String targetName, final NameRecord nameRecord) {
-        xi.computeIfAbsent(uid, k -> new HashSet<>());
-        xi.get(uid).add(nameRecord);
+        // The sets are shared with the copies of the store, so they are replaced rather than updated.
+        final Set<NameRecord> records = xi.get(uid);
+        if (records == null) {
+            xi.put(uid, Util.newSet(nameRecord));
+        } else if (!records.contains(nameRecord)) {
+            final Set<NameRecord> newRecords = new HashSet<>(records);
+            newRecords.add(nameRecord);
+            xi.put(uid, newRecords);
+        }
         names.put(Long.toString(uid.getUid()), targetName);
     }
 
@@ -62,6 +69,19 @@ public class NameFlowStore implements Store<NameFlowStore> {
         return xi;
     }
 
+    /**
+     * Returns the number of names in the store, over all the variables.
+     *
+     * @return the size of the store
+     */
+    public int size() {
+        int size = 0;
+        for (final Set<NameRecord> records : xi.values()) {
+            size += records.size();
+        }
+        return size;
+    }
+
     @Override
     public NameFlowStore copy() {
         return new NameFlowStore(new HashMap<>(xi), new HashMap<>(names), new HashMap<>(declaredVariables), new HashMap<>(returnedVariables));
@@ -70,10 +90,13 @@ public class NameFlowStore implements Store<NameFlowStore> {
     @Override
     public NameFlowStore leastUpperBound(final NameFlowStore other) {
         // The names of each store are saved. If the names are the same, the corresponding sets are merged.
+        // The stores are left unchanged, the analysis compares the upper bound with this store.
         final Map<Node, Set<NameRecord>> xiLub = Util.mergeSetMaps(this.xi, other.xi);
-        this.declaredVariables.putAll(other.declaredVariables);
-        this.returnedVariables.putAll(other.returnedVariables);
-        return new NameFlowStore(xiLub, this.names, this.declaredVariables, this.returnedVariables);
+        final Map<String, Node> declaredLub = new HashMap<>(this.declaredVariables);
+        declaredLub.putAll(other.declaredVariables);
+        final Map<String, Node> returnedLub = new HashMap<>(this.returnedVariables);
+        returnedLub.putAll(other.returnedVariables);
+        return new NameFlowStore(xiLub, this.names, declaredLub, returnedLub);
     }
 
     @Override
@@ -91,9 +114,10 @@ public class NameFlowStore implements Store<NameFlowStore> {
         throw new RuntimeException("Visualization not supported for NameFlowStore.");
     }
 
+    // The declared and returned variables are compared by name, the edges are built from their names only.
     @Override
     public int hashCode() {
-        return Objects.hash(xi);
+        return Objects.hash(xi, declaredVariables.keySet(), returnedVariables.keySet());
     }
 
     @Override
@@ -101,7 +125,8 @@ public class NameFlowStore implements Store<NameFlowStore> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         NameFlowStore that = (NameFlowStore) o;
-        return xi.equals(that.xi);
+        return xi.equals(that.xi) && declaredVariables.keySet().equals(that.declaredVariables.keySet())
+                && returnedVariables.keySet().equals(that.returnedVariables.keySet());
     }
 
     @Override
@@ -7,6 +7,7 @@ import org.checkerframework.dataflow.analysis.TransferInput;
 import org.checkerframework.dataflow.analysis.TransferResult;
 import org.checkerframework.dataflow.cfg.UnderlyingAST;
 import org.checkerframework.dataflow.cfg.node.*;
+import org.checkerframework.flexeme.AnalysisBudget;
 import org.checkerframework.javacutil.TreeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +25,26 @@ public class NameFlowTransfer extends AbstractNodeVisitor<
         implements ForwardTransferFunction<NameRecord, NameFlowStore> {
 
     private static final Logger logger = LoggerFactory.getLogger(NameFlowTransfer.class);
+    private long transferCount = 0;
+    private AnalysisBudget.Meter budget;
+
+    /**
+     * Returns how many times a transfer rule was applied to a node, i.e., the number of nodes visited by the analysis.
+     *
+     * @return the number of transfers
+     */
+    public long getTransferCount() {
+        return transferCount;
+    }
+
+    /**
+     * Sets the meter checking the analysis against the budget of the method, or {@code null} for no budget.
+     *
+     * @param budget the meter of the method
+     */
+    public void setBudget(final AnalysisBudget.Meter budget) {
+        this.budget = budget;
+    }
 
     @Override
     public NameFlowStore initialStore(final UnderlyingAST underlyingAST, final List<LocalVariableNode> parameters) {
@@ -32,6 +53,11 @@ public class NameFlowTransfer extends AbstractNodeVisitor<
 
     @Override
     public TransferResult<NameRecord, NameFlowStore> visitNode(final Node node, final TransferInput<NameRecord, NameFlowStore> transferInput) {
+        // Every visitor method ends here.
+        transferCount++;
+        if (budget != null) {
+            budget.transfer(transferInput.getRegularStore()::size);
+        }
         return new RegularTransferResult<>(null, transferInput.getRegularStore());
     }
 
@@ -45,17 +71,55 @@ public class NameFlowTransfer extends AbstractNodeVisitor<
     @Override
     public TransferResult<NameRecord, NameFlowStore> visitAssignment(final AssignmentNode n, final TransferInput<NameRecord, NameFlowStore> transferInput) {
         RegularTransferResult<NameRecord, NameFlowStore> transferResult = (RegularTransferResult<NameRecord, NameFlowStore>) super.visitAssignment(n, transferInput);
+        assign(n, transferResult.getRegularStore());
+        return transferResult;
+    }
+
+    @Override
+    public TransferResult<NameRecord, NameFlowStore> visitMethodInvocation(final MethodInvocationNode n, final TransferInput<NameRecord, NameFlowStore> transferInput) {
+        RegularTransferResult<NameRecord, NameFlowStore> transferResult = (RegularTransferResult<NameRecord, NameFlowStore>) super.visitMethodInvocation(n, transferInput);
+        invoke(n, transferResult.getRegularStore());
+        return transferResult;
+    }
+
+    @Override
+    public TransferResult<NameRecord, NameFlowStore> visitReturn(final ReturnNode n, final TransferInput<NameRecord, NameFlowStore> transferInput) {
+        RegularTransferResult<NameRecord, NameFlowStore> transferResult = (RegularTransferResult<NameRecord, NameFlowStore>) super.visitReturn(n, transferInput);
+        transferResult.getRegularStore().addReturnedVariables(n);
+        return transferResult;
+    }
+
+    /**
+     * Applies the transfer rule of a node to the store. This is the rule applied by the visitor methods, for the
+     * analyses that do not go through {@link TransferInput} and {@link TransferResult}.
+     *
+     * @param node  the node
+     * @param store the store to update
+     */
+    public void apply(final Node node, final NameFlowStore store) {
+        if (node instanceof VariableDeclarationNode) {
+            store.registerVariableDeclaration((VariableDeclarationNode) node);
+        } else if (node instanceof AssignmentNode) {
+            assign((AssignmentNode) node, store);
+        } else if (node instanceof MethodInvocationNode) {
+            invoke((MethodInvocationNode) node, store);
+        } else if (node instanceof ReturnNode) {
+            store.addReturnedVariables((ReturnNode) node);
+        }
+    }
+
+    private void assign(final AssignmentNode n, final NameFlowStore store) {
         final Tree variableTree = n.getTarget().getTree();
         if (variableTree == null) {
             // Logging for debugging purposes in case we encounter such a case to determine whether it's an error or not.
             logger.warn("No tree for assigned variable: " + n);
-            return transferResult;
+            return;
         }
         final Element element = TreeUtils.elementFromTree(variableTree);
         if (element == null) {
             // Logging for debugging purposes in case we encounter such a case to determine whether it's an error or not.
             logger.warn("No element for assigned variable: " + n);
-            return transferResult;
+            return;
         }
 
         for (final Node operand : n.getOperands()) {
@@ -64,14 +128,11 @@ public class NameFlowTransfer extends AbstractNodeVisitor<
             }
 
             // TODO: Convert to visiting the operand through {@link AbstractNodeVisitor}
-            assignE(n.getTarget(), operand, transferResult.getRegularStore());
+            assignE(n.getTarget(), operand, store);
         }
-        return transferResult;
     }
 
-    @Override
-    public TransferResult<NameRecord, NameFlowStore> visitMethodInvocation(final MethodInvocationNode n, final TransferInput<NameRecord, NameFlowStore> transferInput) {
-        RegularTransferResult<NameRecord, NameFlowStore> transferResult = (RegularTransferResult<NameRecord, NameFlowStore>) super.visitMethodInvocation(n, transferInput);
+    private void invoke(final MethodInvocationNode n, final NameFlowStore store) {
         // Bind parameters to arguments
         for (int i = 0; i < n.getArguments().size(); i++) {
             final Node argument = n.getArguments().get(i); // actual
@@ -79,16 +140,8 @@ public class NameFlowTransfer extends AbstractNodeVisitor<
 
             // TODO: Convert to visiting the operand through {@link AbstractNodeVisitor}
             // Visitor collects the names, then iterate over the list of names calling `assignM()`, `assignV()`, and `assignL()`.
-            assignE(n.getTarget(), argument, transferResult.getRegularStore());
+            assignE(n.getTarget(), argument, store);
         }
-        return transferResult;
-    }
-
-    @Override
-    public TransferResult<NameRecord, NameFlowStore> visitReturn(final ReturnNode n, final TransferInput<NameRecord, NameFlowStore> transferInput) {
-        RegularTransferResult<NameRecord, NameFlowStore> transferResult = (RegularTransferResult<NameRecord, NameFlowStore>) super.visitReturn(n, transferInput);
-        transferResult.getRegularStore().addReturnedVariables(n);
-        return transferResult;
     }
 
     /**
@@ -0,0 +1,114 @@
+package org.checkerframework.flexeme.nameflow;
+
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.VariableTree;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.ConditionalBlock;
+import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
+import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlock;
+import org.checkerframework.dataflow.cfg.node.LocalVariableNode;
+import org.checkerframework.dataflow.cfg.node.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the name flow of a method with one scan over the nodes of its CFG per exit of the method.
+ * <p>
+ * The {@link NameFlowStore} only grows: its least upper bound unions {@code xi} and keeps the declared and returned
+ * variables of both stores. The store of the fixpoint analysis at an exit of the method is therefore the result of the
+ * transfer rules applied to every node whose result flows to that exit, which is what this scan computes, one store
+ * per exit. The result of a node flows to the regular successors of its block only: the exceptional successors
+ * receive the store from before the node. The nodes of loops that never exit flow to no exit and are skipped.
+ * <p>
+ * The stores key a variable by one of its equal nodes and a name by one of its declarations, depending on the order
+ * of the scan; the {@link org.checkerframework.flexeme.pdg.PdgBuilder} picks the same nodes for both engines.
+ */
+public class SinglePassNameFlow {
+    private final NameFlowTransfer transfer = new NameFlowTransfer();
+
+    /**
+     * Runs the name flow rules on the CFG of a method.
+     *
+     * @param cfg    the CFG of the method
+     * @param method the method
+     * @return the stores with the name flow at the regular and at the exceptional exit of the method, without the
+     * exits that cannot be reached
+     */
+    public List<NameFlowStore> analyze(final ControlFlowGraph cfg, final MethodTree method) {
+        final List<LocalVariableNode> parameters = new ArrayList<>();
+        for (final VariableTree parameter : method.getParameters()) {
+            parameters.add(new LocalVariableNode(parameter));
+        }
+
+        final List<Block> blocks = cfg.getDepthFirstOrderedBlocks();
+        final List<NameFlowStore> stores = new ArrayList<>();
+        for (final Block exit : List.of(cfg.getRegularExitBlock(), cfg.getExceptionalExitBlock())) {
+            final Set<Block> reachingExit = reachingBlocks(blocks, exit);
+            if (!reachingExit.contains(cfg.getEntryBlock())) {
+                continue;
+            }
+
+            final NameFlowStore store = transfer.initialStore(cfg.getUnderlyingAST(), parameters);
+            for (final Block block : blocks) {
+                if (Collections.disjoint(regularSuccessors(block), reachingExit)) {
+                    continue;
+                }
+                for (final Node node : block.getNodes()) {
+                    // The transfer function is not called on the targets of assignments.
+                    if (!node.isLValue()) {
+                        transfer.apply(node, store);
+                    }
+                }
+            }
+            stores.add(store);
+        }
+        return stores;
+    }
+
+    /**
+     * Returns the blocks from which an exit can be reached, following the regular and the exceptional successors.
+     */
+    private static Set<Block> reachingBlocks(final List<Block> blocks, final Block exit) {
+        final Map<Block, List<Block>> predecessors = new IdentityHashMap<>();
+        for (final Block block : blocks) {
+            final List<Block> successors = new ArrayList<>(regularSuccessors(block));
+            if (block instanceof ExceptionBlock) {
+                ((ExceptionBlock) block).getExceptionalSuccessors().values().forEach(successors::addAll);
+            }
+            for (final Block successor : successors) {
+                predecessors.computeIfAbsent(successor, key -> new ArrayList<>()).add(block);
+            }
+        }
+
+        final Set<Block> reaching = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Block> worklist = new ArrayList<>();
+        reaching.add(exit);
+        worklist.add(exit);
+        while (!worklist.isEmpty()) {
+            final Block block = worklist.remove(worklist.size() - 1);
+            for (final Block predecessor : predecessors.getOrDefault(block, List.of())) {
+                if (reaching.add(predecessor)) {
+                    worklist.add(predecessor);
+                }
+            }
+        }
+        return reaching;
+    }
+
+    private static List<Block> regularSuccessors(final Block block) {
+        if (block instanceof ConditionalBlock) {
+            final ConditionalBlock conditionalBlock = (ConditionalBlock) block;
+            return List.of(conditionalBlock.getThenSuccessor(), conditionalBlock.getElseSuccessor());
+        }
+        if (block instanceof SingleSuccessorBlock && ((SingleSuccessorBlock) block).getSuccessor() != null) {
+            return List.of(((SingleSuccessorBlock) block).getSuccessor());
+        }
+        return List.of();
+    }
+}
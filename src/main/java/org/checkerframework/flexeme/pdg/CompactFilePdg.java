@@ -0,0 +1,90 @@
+package org.checkerframework.flexeme.pdg;
+
+import java.util.*;
+
+/**
+ * Immutable PDGs of the methods of a file, created by {@link FilePdg#freeze()}.
+ * The method call edges between the PDGs are deduplicated, sorted by caller then callee, and refer to the nodes by
+ * their id.
+ */
+public final class CompactFilePdg {
+    private final List<CompactPdg> graphs;
+    private final long[] callers;
+    private final long[] callees;
+
+    /**
+     * Creates the compact PDGs of a file from their arrays, e.g., when reading them back. The arrays are not copied.
+     *
+     * @param graphs  the PDGs of the methods
+     * @param callers the id of the node making each call
+     * @param callees the id of the entry node of the method called by each call
+     */
+    public CompactFilePdg(final List<CompactPdg> graphs, final long[] callers, final long[] callees) {
+        if (callers.length != callees.length) {
+            throw new IllegalArgumentException("Expected as many callers as callees");
+        }
+        this.graphs = Collections.unmodifiableList(graphs);
+        this.callers = callers;
+        this.callees = callees;
+    }
+
+    CompactFilePdg(final List<CompactPdg> graphs, final Collection<PdgEdge> localCalls) {
+        this.graphs = Collections.unmodifiableList(graphs);
+
+        final Map<Long, Set<Long>> calls = new TreeMap<>();
+        int callCount = 0;
+        for (final PdgEdge localCall : localCalls) {
+            if (calls.computeIfAbsent(localCall.from.getId(), key -> new TreeSet<>()).add(localCall.to.getId())) {
+                callCount++;
+            }
+        }
+        callers = new long[callCount];
+        callees = new long[callCount];
+        int i = 0;
+        for (final Map.Entry<Long, Set<Long>> call : calls.entrySet()) {
+            for (final long callee : call.getValue()) {
+                callers[i] = call.getKey();
+                callees[i] = callee;
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Returns the PDGs of the methods of the file.
+     *
+     * @return the PDGs
+     */
+    public List<CompactPdg> getGraphs() {
+        return graphs;
+    }
+
+    /**
+     * Returns the number of method call edges between the methods of the file.
+     *
+     * @return the number of calls
+     */
+    public int callCount() {
+        return callers.length;
+    }
+
+    /**
+     * Returns the id of the node making a method call.
+     *
+     * @param call the index of the call
+     * @return the id of the calling node
+     */
+    public long getCaller(final int call) {
+        return callers[call];
+    }
+
+    /**
+     * Returns the id of the entry node of the method called.
+     *
+     * @param call the index of the call
+     * @return the id of the called node
+     */
+    public long getCallee(final int call) {
+        return callees[call];
+    }
+}
@@ -0,0 +1,269 @@
+package org.checkerframework.flexeme.pdg;
+
+import org.checkerframework.flexeme.AnalysisBudget;
+import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.TreeUtils;
+
+import java.util.*;
+
+/**
+ * Immutable PDG of a method, created by {@link MethodPdg#freeze()} once the PDG is built, or from its arrays.
+ * <p>
+ * The nodes are numbered by their index, in the order of the {@link MethodPdg}, and described by parallel arrays.
+ * The edges are deduplicated and stored per {@link PdgEdge.Type} in compressed sparse rows: the targets of the edges
+ * from node {@code i} are {@code targets[offsets[i]]} to {@code targets[offsets[i + 1] - 1]}, in increasing order,
+ * so that the output does not depend on the order the analyses found the edges in. A compact PDG holds no reference
+ * to the compilation results, the AST or the CFG of the method.
+ */
+public final class CompactPdg {
+    private static final PdgEdge.Type[] TYPES = PdgEdge.Type.values();
+
+    private final String className;
+    private final String methodName;
+    private final String qualifiedName;
+    private final List<String> parametersType;
+    private final AnalysisBudget.Limit exceededLimit;
+
+    private final long[] ids;
+    private final String[] labels;
+    private final long[] startLines;
+    private final long[] endLines;
+
+    private final int[][] offsets;
+    private final int[][] targets;
+
+    /**
+     * Creates a compact PDG from its arrays, e.g., when reading it back. The arrays are not copied.
+     *
+     * @param className      the simple name of the class of the method
+     * @param methodName     the name of the method
+     * @param qualifiedName  the qualified name of the method, with the types of its parameters
+     * @param parametersType the types of the parameters, as written in the source
+     * @param ids            the id of each node
+     * @param labels         the label of each node
+     * @param startLines     the first line of each node
+     * @param endLines       the last line of each node
+     * @param offsets        for each {@link PdgEdge.Type}, by ordinal, the offset of the edges of each node in
+     *                       {@code targets}, followed by the number of edges
+     * @param targets        for each {@link PdgEdge.Type}, by ordinal, the target nodes of the edges
+     */
+    public CompactPdg(final String className, final String methodName, final String qualifiedName, final List<String> parametersType,
+                      final long[] ids, final String[] labels, final long[] startLines, final long[] endLines,
+                      final int[][] offsets, final int[][] targets) {
+        this(className, methodName, qualifiedName, parametersType, ids, labels, startLines, endLines, offsets, targets, null);
+    }
+
+    /**
+     * Creates a compact PDG from its arrays, e.g., when reading it back. The arrays are not copied.
+     *
+     * @param className      the simple name of the class of the method
+     * @param methodName     the name of the method
+     * @param qualifiedName  the qualified name of the method, with the types of its parameters
+     * @param parametersType the types of the parameters, as written in the source
+     * @param ids            the id of each node
+     * @param labels         the label of each node
+     * @param startLines     the first line of each node
+     * @param endLines       the last line of each node
+     * @param offsets        for each {@link PdgEdge.Type}, by ordinal, the offset of the edges of each node in
+     *                       {@code targets}, followed by the number of edges
+     * @param targets        for each {@link PdgEdge.Type}, by ordinal, the target nodes of the edges
+     * @param exceededLimit  the limit of the analysis budget exceeded by the method, or {@code null}
+     */
+    public CompactPdg(final String className, final String methodName, final String qualifiedName, final List<String> parametersType,
+                      final long[] ids, final String[] labels, final long[] startLines, final long[] endLines,
+                      final int[][] offsets, final int[][] targets, final AnalysisBudget.Limit exceededLimit) {
+        if (offsets.length != TYPES.length || targets.length != TYPES.length) {
+            throw new IllegalArgumentException("Expected the edges of " + TYPES.length + " types");
+        }
+        this.className = className;
+        this.methodName = methodName;
+        this.qualifiedName = qualifiedName;
+        this.parametersType = Collections.unmodifiableList(parametersType);
+        this.ids = ids;
+        this.labels = labels;
+        this.startLines = startLines;
+        this.endLines = endLines;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.exceededLimit = exceededLimit;
+    }
+
+    static CompactPdg freeze(final MethodPdg methodPdg) {
+        final int nodeCount = methodPdg.nodes().size();
+        final long[] ids = new long[nodeCount];
+        final String[] labels = new String[nodeCount];
+        final long[] startLines = new long[nodeCount];
+        final long[] endLines = new long[nodeCount];
+        final Map<PdgNode, Integer> indexes = new IdentityHashMap<>();
+        for (final PdgNode node : methodPdg.nodes()) {
+            final int index = indexes.size();
+            ids[index] = node.getId();
+            labels[index] = node.toString();
+            startLines[index] = node.getStartLine();
+            endLines[index] = node.getEndLine();
+            indexes.put(node, index);
+        }
+
+        // Deduplicate and sort the targets of each node, per type.
+        final List<List<Set<Integer>>> adjacency = new ArrayList<>();
+        for (int type = 0; type < TYPES.length; type++) {
+            adjacency.add(new ArrayList<>(Collections.nCopies(nodeCount, null)));
+        }
+        for (final PdgEdge edge : methodPdg.edges()) {
+            final List<Set<Integer>> rows = adjacency.get(edge.type.ordinal());
+            final int from = indexes.get(edge.from);
+            if (rows.get(from) == null) {
+                rows.set(from, new TreeSet<>());
+            }
+            rows.get(from).add(indexes.get(edge.to));
+        }
+
+        final int[][] offsets = new int[TYPES.length][];
+        final int[][] targets = new int[TYPES.length][];
+        for (int type = 0; type < TYPES.length; type++) {
+            final List<Set<Integer>> rows = adjacency.get(type);
+            final int[] typeOffsets = new int[nodeCount + 1];
+            int edgeCount = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                typeOffsets[node] = edgeCount;
+                edgeCount += rows.get(node) == null ? 0 : rows.get(node).size();
+            }
+            typeOffsets[nodeCount] = edgeCount;
+
+            final int[] typeTargets = new int[edgeCount];
+            int i = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                if (rows.get(node) != null) {
+                    for (final int target : rows.get(node)) {
+                        typeTargets[i++] = target;
+                    }
+                }
+            }
+            offsets[type] = typeOffsets;
+            targets[type] = typeTargets;
+        }
+
+        final String qualifiedName = ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(methodPdg.getTree()));
+        return new CompactPdg(methodPdg.getClassName(), methodPdg.getMethodName(), qualifiedName, methodPdg.getParametersType(),
+                ids, labels, startLines, endLines, offsets, targets, methodPdg.getExceededLimit());
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * Returns the qualified name of the method, with the types of its parameters, e.g.,
+     * {@code com.example.Foo.bar(int,java.lang.String)}.
+     *
+     * @return the qualified name of the method
+     */
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public List<String> getParametersType() {
+        return parametersType;
+    }
+
+    /**
+     * Returns the limit of the analysis budget exceeded by the method, if any.
+     *
+     * @return the limit exceeded, or {@code null} if the analyses completed
+     * @see MethodPdg#getExceededLimit()
+     */
+    public AnalysisBudget.Limit getExceededLimit() {
+        return exceededLimit;
+    }
+
+    /**
+     * Returns the number of nodes, the nodes being numbered from 0.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return ids.length;
+    }
+
+    public long getId(final int node) {
+        return ids[node];
+    }
+
+    public String getLabel(final int node) {
+        return labels[node];
+    }
+
+    public long getStartLine(final int node) {
+        return startLines[node];
+    }
+
+    public long getEndLine(final int node) {
+        return endLines[node];
+    }
+
+    /**
+     * Returns the number of distinct edges of a type.
+     *
+     * @param type the type of the edges
+     * @return the number of edges
+     */
+    public int edgeCount(final PdgEdge.Type type) {
+        return targets[type.ordinal()].length;
+    }
+
+    /**
+     * Returns the number of distinct edges.
+     *
+     * @return the number of edges of every type
+     */
+    public int edgeCount() {
+        int edgeCount = 0;
+        for (final int[] typeTargets : targets) {
+            edgeCount += typeTargets.length;
+        }
+        return edgeCount;
+    }
+
+    /**
+     * Returns the number of edges of a type going out of a node.
+     *
+     * @param node the node
+     * @param type the type of the edges
+     * @return the out degree of the node
+     */
+    public int outDegree(final int node, final PdgEdge.Type type) {
+        final int[] typeOffsets = offsets[type.ordinal()];
+        return typeOffsets[node + 1] - typeOffsets[node];
+    }
+
+    /**
+     * Returns the target of an edge of a type going out of a node.
+     *
+     * @param node the node
+     * @param type the type of the edge
+     * @param i    the index of the edge among the edges of the type going out of the node
+     * @return the target node
+     */
+    public int getTarget(final int node, final PdgEdge.Type type, final int i) {
+        return targets[type.ordinal()][offsets[type.ordinal()][node] + i];
+    }
+
+    /**
+     * Returns the index of a node.
+     *
+     * @param label the label of the node
+     * @return the index of the first node with the label, or -1 if there is none
+     */
+    public int indexOf(final String label) {
+        for (int node = 0; node < labels.length; node++) {
+            if (labels[node].equals(label)) {
+                return node;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,33 @@
+package org.checkerframework.flexeme.pdg;
+
+import java.io.IOException;
+
+/**
+ * Writes the frozen PDGs of a file one method at a time, as
+ * {@link PdgBuilder#buildPdgForFile(org.checkerframework.flexeme.FileProcessor, CompactPdgWriter)} builds them.
+ */
+public interface CompactPdgWriter {
+    /**
+     * Writes the PDG of a method.
+     *
+     * @param graph the PDG of the method
+     * @throws IOException if the output cannot be written
+     */
+    void writeGraph(CompactPdg graph) throws IOException;
+
+    /**
+     * Called once the PDGs of every method of the file are written, before the method calls between them.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    void writeEdges() throws IOException;
+
+    /**
+     * Writes a method call edge between two method PDGs.
+     *
+     * @param caller the id of the node making the call
+     * @param callee the id of the entry node of the called method
+     * @throws IOException if the output cannot be written
+     */
+    void writeCall(long caller, long callee) throws IOException;
+}
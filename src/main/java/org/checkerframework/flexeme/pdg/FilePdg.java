@@ -4,6 +4,8 @@ import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.TreeUtils;
 
 import javax.lang.model.element.ExecutableElement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -36,6 +38,19 @@ public class FilePdg {
         return localCalls;
     }
 
+    /**
+     * Freezes the PDGs of the file, see {@link MethodPdg#freeze()}.
+     *
+     * @return the immutable PDGs of the file
+     */
+    public CompactFilePdg freeze() {
+        final List<CompactPdg> compactGraphs = new ArrayList<>(graphs.size());
+        for (final MethodPdg graph : graphs) {
+            compactGraphs.add(graph.freeze());
+        }
+        return new CompactFilePdg(compactGraphs, localCalls);
+    }
+
     /**
      * Returns whether the given PDG element is calling a method in the same class.
      *
@@ -8,16 +8,17 @@ import com.sun.tools.javac.tree.JCTree;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.dataflow.cfg.block.SpecialBlock;
 import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.flexeme.AnalysisBudget;
 import org.checkerframework.flexeme.FileProcessor;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represent the Program Dependence Graph (PDG) of a method.
  */
 @SuppressWarnings("UnstableApiUsage")
 public class MethodPdg {
-    private static long nodeId = 0; // TODO: Refactor nodeId to be a field of PdgNode
     public final Set<String> parameterNames;
     private final FileProcessor processor;
     private final ClassTree classAst;
@@ -26,15 +27,21 @@ public class MethodPdg {
     private final MutableNetwork<PdgNode, PdgEdge> graph;
     private final HashMap<SpecialBlock, PdgNode> blockToPdgNode;
     private final Map<Node, Tree> cfgNodeToPdgTree; // Holds the mapping from CFG nodes to PDG nodes. One PDG nodes can be mapped to multiple CFG nodes.
-    private final HashMap<Tree, PdgNode> pdgElementToPdgNodeMap;
+    private final Map<Tree, PdgNode> pdgElementToPdgNodeMap;
+    private final AtomicLong nodeIds; // Numbers the nodes of the method, see PdgNode#getId().
+    private long firstNodeId = 0; // Offset of the ids of the nodes, so that they are unique in the file.
+    private final PdgBuilder.LabelStyle labelStyle;
+    private AnalysisBudget.Limit exceededLimit; // Null if the analyses of the method completed.
 
-    public MethodPdg(FileProcessor processor, final ClassTree classAst, final MethodTree methodAst, final ControlFlowGraph methodCfg, final Map<Node, Tree> cfgNodesToPdgElements) {
+    public MethodPdg(FileProcessor processor, final ClassTree classAst, final MethodTree methodAst, final ControlFlowGraph methodCfg, final Map<Node, Tree> cfgNodesToPdgElements, final AtomicLong nodeIds, final PdgBuilder.LabelStyle labelStyle) {
         this.processor = processor;
+        this.labelStyle = labelStyle;
+        this.nodeIds = nodeIds;
         this.classAst = classAst;
         this.methodAst = methodAst;
         this.methodCfg = methodCfg;
         this.graph = NetworkBuilder.directed().allowsSelfLoops(true).allowsParallelEdges(true).build();
-        this.pdgElementToPdgNodeMap = new HashMap<>();
+        this.pdgElementToPdgNodeMap = new LinkedHashMap<>();
         this.blockToPdgNode = new HashMap<>();
         this.cfgNodeToPdgTree = cfgNodesToPdgElements;
         this.parameterNames = new HashSet<>();
@@ -57,15 +64,33 @@ public class MethodPdg {
     }
 
     public void addNode(final Tree tree) {
-        final LineMap lineMap = processor.getLineMap();
-        final EndPosTable endPosTable = processor.getEndPosTable();
+        final CompilationUnitTree root = processor.getCompilationUnit(methodAst);
+        final LineMap lineMap = processor.getLineMap(root);
+        final EndPosTable endPosTable = processor.getEndPosTable(root);
         JCTree jct = (JCTree) tree;
-        long lineStart = lineMap.getLineNumber(jct.getStartPosition());
-        long lineEnd = lineMap.getLineNumber(jct.getEndPosition(endPosTable));
-        PdgNode node = new PdgNode(this, nodeId, tree.toString(), lineStart, lineEnd);
+        int startOffset = jct.getStartPosition();
+        int endOffset = jct.getEndPosition(endPosTable);
+        long lineStart = lineMap.getLineNumber(startOffset);
+        long lineEnd = lineMap.getLineNumber(endOffset);
+        // Without end position, the tree is pretty-printed.
+        CharSequence source = labelStyle == PdgBuilder.LabelStyle.SOURCE && endOffset >= startOffset ? processor.getSource(root) : null;
+        PdgNode node = new PdgNode(this, nodeIds.getAndIncrement(), tree, source, startOffset, endOffset, lineStart, lineEnd);
         pdgElementToPdgNodeMap.put(tree, node);
         graph.addNode(node);
-        nodeId++;
+    }
+
+    /**
+     * Returns the id of the first node of the method. The PDGs of a file are given contiguous ranges of ids once they
+     * are all built.
+     *
+     * @return the offset of the ids of the nodes
+     */
+    public long getFirstNodeId() {
+        return firstNodeId;
+    }
+
+    void setFirstNodeId(final long firstNodeId) {
+        this.firstNodeId = firstNodeId;
     }
 
     public Set<PdgEdge> edges() {
@@ -80,10 +105,9 @@ public class MethodPdg {
      * @param label the label to use for the PDG node
      */
     public void registerSpecialBlock(final SpecialBlock block, final String label) {
-        final PdgNode node = new PdgNode(this, nodeId, label, 0, 0);
+        final PdgNode node = new PdgNode(this, nodeIds.getAndIncrement(), label, 0, 0);
         blockToPdgNode.put(block, node);
         graph.addNode(node);
-        nodeId++;
     }
 
 
@@ -104,6 +128,35 @@ public class MethodPdg {
         graph.addEdge(edge.from, edge.to, edge);
     }
 
+    /**
+     * Removes the edges of a type from the graph.
+     *
+     * @param type the type of the edges to remove
+     */
+    void removeEdges(final PdgEdge.Type type) {
+        final List<PdgEdge> removed = new ArrayList<>();
+        for (final PdgEdge edge : graph.edges()) {
+            if (edge.type == type) {
+                removed.add(edge);
+            }
+        }
+        removed.forEach(graph::removeEdge);
+    }
+
+    /**
+     * Returns the limit of the {@link AnalysisBudget} exceeded by the analyses of the method, if any. The PDG of such
+     * a method has no data or name flow edges.
+     *
+     * @return the limit exceeded, or {@code null} if the analyses completed
+     */
+    public AnalysisBudget.Limit getExceededLimit() {
+        return exceededLimit;
+    }
+
+    void setExceededLimit(final AnalysisBudget.Limit exceededLimit) {
+        this.exceededLimit = exceededLimit;
+    }
+
     /**
      * Checks if the graph contains a node with the given label.
      *
@@ -142,6 +195,15 @@ public class MethodPdg {
         return pdgElementToPdgNodeMap.keySet();
     }
 
+    /**
+     * Returns the name of the source file declaring the method, as given to the compiler.
+     *
+     * @return the name of the source file
+     */
+    public String getSourceFileName() {
+        return processor.getCompilationUnit(methodAst).getSourceFile().getName();
+    }
+
     public MethodTree getMethodAst() {
         return methodAst;
     }
@@ -150,6 +212,16 @@ public class MethodPdg {
         return methodCfg;
     }
 
+    /**
+     * Copies the built PDG into an immutable {@link CompactPdg}, without duplicate edges.
+     * The compact PDG is much smaller and does not keep the compilation results alive.
+     *
+     * @return the compact PDG
+     */
+    public CompactPdg freeze() {
+        return CompactPdg.freeze(this);
+    }
+
     /**
      * Returns a list of types of the parameters of the method.
      *
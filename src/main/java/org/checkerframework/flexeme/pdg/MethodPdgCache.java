@@ -0,0 +1,234 @@
+package org.checkerframework.flexeme.pdg;
+
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.ConditionalBlock;
+import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
+import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlock;
+import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.TreeUtils;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Cache of the edges of the method PDGs, used to rebuild only the methods that changed between two versions of a file.
+ * <p>
+ * A method is identified by a hash of the configuration of the builder, of its qualified signature, of its
+ * pretty-printed tree, which ignores the formatting and the comments of the method, and of the structure of its CFG.
+ * The CFG depends on the declarations the method uses, e.g., the exceptions thrown by its callees or the types of the
+ * fields it reads, so a method whose tree is unchanged is still rebuilt when they change. The nodes of a method PDG are
+ * created in the same order for the same tree, so the edges are stored as pairs of node indexes. When a method is
+ * found in the cache, its nodes are created from the new tree, with the line spans of the new version, and the edges
+ * are copied from the cache instead of traversing the CFG and running the analyses.
+ * <p>
+ * The cache keeps the {@code capacity} most recently used methods. It is thread-safe.
+ */
+public class MethodPdgCache {
+    private final Map<String, Entry> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity the maximum number of methods in the cache
+     */
+    public MethodPdgCache(final int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Computes the key of a method PDG from the tree and the CFG of its method.
+     *
+     * @param methodPdg     the method PDG
+     * @param configuration the options of the builder that change the edges of the PDG
+     * @return the key of the method PDG
+     */
+    public String key(final MethodPdg methodPdg, final String configuration) {
+        final String signature = ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(methodPdg.getMethodAst()));
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        update(digest, configuration);
+        update(digest, signature);
+        update(digest, methodPdg.getMethodAst().toString());
+        updateCfg(digest, methodPdg.getMethodCfg());
+        return new BigInteger(1, digest.digest()).toString(16);
+    }
+
+    /**
+     * Hashes the blocks of a CFG, their nodes with their types, and their successors. The blocks are numbered in the
+     * order they are reached from the entry block, as their uids differ between two compilations.
+     */
+    private static void updateCfg(final MessageDigest digest, final ControlFlowGraph cfg) {
+        final Map<Block, Integer> indexes = new IdentityHashMap<>();
+        final Deque<Block> worklist = new ArrayDeque<>();
+        indexes.put(cfg.getEntryBlock(), 0);
+        worklist.add(cfg.getEntryBlock());
+        while (!worklist.isEmpty()) {
+            final Block block = worklist.poll();
+            update(digest, block.getType().toString());
+            for (final Node node : block.getNodes()) {
+                update(digest, node.getClass().getSimpleName());
+                update(digest, node.toString());
+                update(digest, String.valueOf(node.getType()));
+            }
+
+            final List<Block> successors = new ArrayList<>();
+            if (block instanceof ConditionalBlock) {
+                successors.add(((ConditionalBlock) block).getThenSuccessor());
+                successors.add(((ConditionalBlock) block).getElseSuccessor());
+            } else if (block instanceof SingleSuccessorBlock && ((SingleSuccessorBlock) block).getSuccessor() != null) {
+                successors.add(((SingleSuccessorBlock) block).getSuccessor());
+            }
+            for (final Block successor : successors) {
+                update(digest, "->" + index(successor, indexes, worklist));
+            }
+            if (block instanceof ExceptionBlock) {
+                // Sorted by exception type, the order of the map is not part of the structure.
+                final Map<String, Set<Block>> exceptionalSuccessors = new TreeMap<>();
+                ((ExceptionBlock) block).getExceptionalSuccessors().forEach((type, blocks) -> exceptionalSuccessors.put(type.toString(), blocks));
+                for (final Map.Entry<String, Set<Block>> exceptionalSuccessor : exceptionalSuccessors.entrySet()) {
+                    for (final Block successor : exceptionalSuccessor.getValue()) {
+                        update(digest, exceptionalSuccessor.getKey() + "->" + index(successor, indexes, worklist));
+                    }
+                }
+            }
+            digest.update((byte) 0);
+        }
+    }
+
+    /**
+     * Returns the index of a block, numbering and queuing it if it was not reached yet.
+     */
+    private static int index(final Block block, final Map<Block, Integer> indexes, final Deque<Block> worklist) {
+        final Integer index = indexes.get(block);
+        if (index != null) {
+            return index;
+        }
+        indexes.put(block, indexes.size());
+        worklist.add(block);
+        return indexes.size() - 1;
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0); // Separator, so that ("ab", "c") and ("a", "bc") have different keys.
+    }
+
+    /**
+     * Adds the cached edges to a method PDG whose nodes are already created.
+     *
+     * @param key       the key of the method PDG
+     * @param methodPdg the method PDG, with its nodes and without edges
+     * @return true if the edges were found in the cache, false if the PDG has to be built
+     */
+    public synchronized boolean restore(final String key, final MethodPdg methodPdg) {
+        final Entry entry = entries.get(key);
+        final List<PdgNode> nodes = new ArrayList<>(methodPdg.nodes());
+        if (entry == null || !entry.matches(nodes)) {
+            misses++;
+            return false;
+        }
+
+        hits++;
+        for (int i = 0; i < entry.types.length; i++) {
+            methodPdg.addEdge(new PdgEdge(nodes.get(entry.from[i]), nodes.get(entry.to[i]), entry.types[i]));
+        }
+        return true;
+    }
+
+    /**
+     * Stores the edges of a built method PDG.
+     *
+     * @param key       the key of the method PDG
+     * @param methodPdg the method PDG
+     */
+    public synchronized void store(final String key, final MethodPdg methodPdg) {
+        entries.put(key, new Entry(methodPdg));
+    }
+
+    /**
+     * Returns the number of method PDGs restored from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of method PDGs not found in the cache.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The nodes and edges of a method PDG, the edges refer to the nodes by their index in the PDG.
+     */
+    private static class Entry {
+        private final String[] labels;
+        private final int[] from;
+        private final int[] to;
+        private final PdgEdge.Type[] types;
+
+        Entry(final MethodPdg methodPdg) {
+            final Map<PdgNode, Integer> indexes = new HashMap<>();
+            labels = new String[methodPdg.nodes().size()];
+            for (final PdgNode node : methodPdg.nodes()) {
+                labels[indexes.size()] = node.toString();
+                indexes.put(node, indexes.size());
+            }
+
+            final int edgeCount = methodPdg.edges().size();
+            from = new int[edgeCount];
+            to = new int[edgeCount];
+            types = new PdgEdge.Type[edgeCount];
+            int i = 0;
+            for (final PdgEdge edge : methodPdg.edges()) {
+                from[i] = indexes.get(edge.from);
+                to[i] = indexes.get(edge.to);
+                types[i] = edge.type;
+                i++;
+            }
+        }
+
+        /**
+         * Checks that the nodes were created in the same order as the cached ones.
+         */
+        boolean matches(final List<PdgNode> nodes) {
+            if (nodes.size() != labels.length) {
+                return false;
+            }
+            for (int i = 0; i < labels.length; i++) {
+                if (!labels[i].equals(nodes.get(i).toString())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
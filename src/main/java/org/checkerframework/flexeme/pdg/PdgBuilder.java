@@ -5,36 +5,154 @@ import com.sun.source.util.TreeScanner;
 import org.checkerframework.dataflow.analysis.ForwardAnalysis;
 import org.checkerframework.dataflow.analysis.ForwardAnalysisImpl;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.node.AssignmentNode;
 import org.checkerframework.dataflow.cfg.node.LocalVariableNode;
+import org.checkerframework.dataflow.cfg.node.MethodInvocationNode;
 import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.dataflow.cfg.node.VariableDeclarationNode;
 import org.checkerframework.flexeme.*;
+import org.checkerframework.flexeme.dataflow.BitVectorDataflow;
 import org.checkerframework.flexeme.dataflow.DataflowStore;
 import org.checkerframework.flexeme.dataflow.DataflowTransfer;
 import org.checkerframework.flexeme.dataflow.Edge;
 import org.checkerframework.flexeme.dataflow.VariableReference;
+import org.checkerframework.flexeme.fused.FusedStore;
+import org.checkerframework.flexeme.fused.FusedTransfer;
+import org.checkerframework.flexeme.jfr.AnalysisEvent;
+import org.checkerframework.flexeme.metrics.ExtractionMetrics;
+import org.checkerframework.flexeme.metrics.MethodMetrics;
+import org.checkerframework.flexeme.metrics.Phase;
+import org.checkerframework.flexeme.metrics.PhaseTimer;
 import org.checkerframework.flexeme.nameflow.NameFlowStore;
 import org.checkerframework.flexeme.nameflow.NameFlowTransfer;
 import org.checkerframework.flexeme.nameflow.NameRecord;
+import org.checkerframework.flexeme.nameflow.SinglePassNameFlow;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.TreeUtils;
-import org.checkerframework.org.plumelib.util.IdentityArraySet;
-import org.checkerframework.org.plumelib.util.UnmodifiableIdentityHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.lang.model.element.ExecutableElement;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongBiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Builds {@link org.checkerframework.flexeme.pdg.MethodPdg} and {@link org.checkerframework.flexeme.pdg.FilePdg}.
  * The input to the builder is the compilation results for a file as a {@link org.checkerframework.flexeme.FileProcessor}.
  * The output is a {@link org.checkerframework.flexeme.pdg.FilePdg} containing the PDGs for each method in the file or
  * a {@link org.checkerframework.flexeme.pdg.MethodPdg} for a single method.
+ * <p>
+ * The PDGs of the methods of a file are independent once the compilation is over, so they can be built in parallel
+ * (see {@link #setParallel(boolean)}). The local method calls between them are found once all of them are built.
  */
 public class PdgBuilder {
 
     private static final Logger logger = LoggerFactory.getLogger(PdgBuilder.class);
 
+    private boolean parallel = false;
+    private MethodPdgCache methodCache;
+    private DataflowEngine dataflowEngine = DataflowEngine.FIXPOINT;
+    private NameFlowEngine nameFlowEngine = NameFlowEngine.FIXPOINT;
+    private boolean fusedAnalysis = false;
+    private ControlEdges controlEdges = ControlEdges.SUCCESSION;
+    private LabelStyle labelStyle = LabelStyle.PRETTY;
+    private ExtractionMetrics metrics;
+    private AnalysisBudget analysisBudget = AnalysisBudget.UNLIMITED;
+
+    /**
+     * Sets whether the PDGs of the methods of a file are built in parallel on the common fork-join pool.
+     * The node ids are the same either way: each method numbers its nodes from 0, and the ids of a file are offset in
+     * the order of its methods once they are all built.
+     *
+     * @param parallel whether to build the method PDGs in parallel
+     */
+    public void setParallel(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the engine computing the dataflow edges. Both engines find the same edges.
+     *
+     * @param dataflowEngine the dataflow engine
+     */
+    public void setDataflowEngine(final DataflowEngine dataflowEngine) {
+        this.dataflowEngine = dataflowEngine;
+    }
+
+    /**
+     * Sets the engine computing the name flow edges.
+     *
+     * @param nameFlowEngine the name flow engine
+     */
+    public void setNameFlowEngine(final NameFlowEngine nameFlowEngine) {
+        this.nameFlowEngine = nameFlowEngine;
+    }
+
+    /**
+     * Sets whether the dataflow and name flow analyses run together, in one traversal of the CFG with a
+     * {@link FusedStore}. The fused analysis only replaces the {@link DataflowEngine#FIXPOINT} and
+     * {@link NameFlowEngine#FIXPOINT} engines; it is ignored if another engine is selected.
+     *
+     * @param fusedAnalysis whether to fuse the dataflow and name flow analyses
+     */
+    public void setFusedAnalysis(final boolean fusedAnalysis) {
+        this.fusedAnalysis = fusedAnalysis;
+    }
+
+    /**
+     * Sets which control edges are added to the PDGs.
+     *
+     * @param controlEdges the kind of control edges
+     */
+    public void setControlEdges(final ControlEdges controlEdges) {
+        this.controlEdges = controlEdges;
+    }
+
+    /**
+     * Sets how the labels of the PDG nodes are rendered. The labels are rendered when first read, e.g., by the
+     * {@link org.checkerframework.flexeme.DotPrinter}, not when the PDG is built.
+     *
+     * @param labelStyle the style of the labels
+     */
+    public void setLabelStyle(final LabelStyle labelStyle) {
+        this.labelStyle = labelStyle;
+    }
+
+    /**
+     * Sets the cache used to reuse the edges of the methods that did not change since a previous build, or
+     * {@code null} to build every method.
+     *
+     * @param methodCache the cache of the method PDGs
+     */
+    public void setMethodCache(final MethodPdgCache methodCache) {
+        this.methodCache = methodCache;
+    }
+
+    /**
+     * Sets where to record the resources spent building each method and the sizes of their PDGs, or {@code null} to
+     * record nothing.
+     *
+     * @param metrics the metrics of the extraction
+     */
+    public void setMetrics(final ExtractionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the limits of the dataflow and name flow analyses of each method. A method exceeding them keeps its
+     * control edges only and is marked with the limit exceeded, see {@link MethodPdg#getExceededLimit()}.
+     *
+     * @param analysisBudget the budget of a method, {@link AnalysisBudget#UNLIMITED} by default
+     */
+    public void setAnalysisBudget(final AnalysisBudget analysisBudget) {
+        this.analysisBudget = analysisBudget;
+    }
+
     /**
      * Build the PDGs for each method in the file.
      *
@@ -42,14 +160,138 @@ public class PdgBuilder {
      * @return A holder object for the PDGs for the file
      */
     public FilePdg buildPdgForFile(final FileProcessor processor) {
-        // Build the PDG for each method in the compiled file.
-        Set<MethodPdg> graphs = new HashSet<>();
+        return buildPdgForMethods(processor, processor.getMethodsAst());
+    }
+
+    /**
+     * Build the PDGs for each method in the file and write each of them as soon as it is built and frozen, so that the
+     * PDGs and their analyses are not all in memory at the same time. Only the ids needed by the method calls are
+     * kept; the calls are written last, once every method is known. The PDGs and their node ids are the same as with
+     * {@link #buildPdgForFile(FileProcessor)}. In parallel mode, the PDGs are all built before being written.
+     *
+     * @param processor The processor containing the compilation results for the file
+     * @param writer    Where to write the PDGs, the time spent in it is measured as the output
+     * @return The number of method PDGs written
+     * @throws IOException if the PDGs cannot be written
+     */
+    @SuppressWarnings("try")
+    public int buildPdgForFile(final FileProcessor processor, final CompactPdgWriter writer) throws IOException {
+        if (parallel) {
+            final CompactFilePdg filePdg;
+            final FilePdg built = buildPdgForFile(processor);
+            try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.FREEZE)) {
+                filePdg = built.freeze();
+            }
+            try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.OUTPUT)) {
+                for (final CompactPdg graph : filePdg.getGraphs()) {
+                    writer.writeGraph(graph);
+                }
+                writer.writeEdges();
+                for (int call = 0; call < filePdg.callCount(); call++) {
+                    writer.writeCall(filePdg.getCaller(call), filePdg.getCallee(call));
+                }
+            }
+            return filePdg.getGraphs().size();
+        }
+
+        final Map<String, Long> entryIds = new HashMap<>();
+        final Map<Long, Set<String>> calledMethods = new LinkedHashMap<>();
+        long firstNodeId = 0;
+        int methodCount = 0;
         for (final MethodTree methodAst : processor.getMethodsAst()) {
-            MethodPdg methodPdg = buildPdg(processor, methodAst);
-            graphs.add(methodPdg);
+            final MethodPdg methodPdg = buildPdg(processor, methodAst, new AtomicLong());
+            methodPdg.setFirstNodeId(firstNodeId);
+            firstNodeId += methodPdg.nodes().size();
+            methodCount++;
+
+            try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.CALLS)) {
+                entryIds.put(ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(methodPdg.getTree())), methodPdg.getStartNode().getId());
+                for (final Tree pdgElement : methodPdg.getPdgElements()) {
+                    final Set<String> called = calledMethods(pdgElement);
+                    if (!called.isEmpty()) {
+                        calledMethods.computeIfAbsent(methodPdg.getNode(pdgElement).getId(), key -> new HashSet<>()).addAll(called);
+                    }
+                }
+            }
+            final CompactPdg graph;
+            try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.FREEZE)) {
+                graph = methodPdg.freeze();
+            }
+            try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.OUTPUT)) {
+                writer.writeGraph(graph);
+            }
         }
 
-        Set<PdgEdge> localCalls = findLocalMethodCalls(graphs);
+        // Sorted by caller then callee, as in CompactFilePdg.
+        final Map<Long, Set<Long>> calls = new TreeMap<>();
+        try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.CALLS)) {
+            calledMethods.forEach((caller, methodNames) -> {
+                for (final String methodName : methodNames) {
+                    final Long callee = entryIds.get(methodName);
+                    if (callee != null) {
+                        calls.computeIfAbsent(caller, key -> new TreeSet<>()).add(callee);
+                    }
+                }
+            });
+        }
+        try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.OUTPUT)) {
+            writer.writeEdges();
+            for (final Map.Entry<Long, Set<Long>> call : calls.entrySet()) {
+                for (final long callee : call.getValue()) {
+                    writer.writeCall(call.getKey(), callee);
+                }
+            }
+        }
+        return methodCount;
+    }
+
+    /**
+     * Build the PDGs for each method in one of the compilation units compiled by the processor.
+     *
+     * @param processor The processor containing the compilation results
+     * @param root      The compilation unit to build the PDGs for
+     * @return A holder object for the PDGs for the compilation unit
+     */
+    public FilePdg buildPdgForFile(final FileProcessor processor, final CompilationUnitTree root) {
+        return buildPdgForMethods(processor, processor.getMethodsAst(root));
+    }
+
+    /**
+     * Build the PDGs for every compilation unit compiled by the processor.
+     *
+     * @param processor The processor containing the compilation results for one or more files
+     * @return The PDGs for each compilation unit, in the order the units were compiled
+     */
+    public Map<CompilationUnitTree, FilePdg> buildPdgForFiles(final FileProcessor processor) {
+        final Map<CompilationUnitTree, FilePdg> filePdgs = new LinkedHashMap<>();
+        for (final CompilationUnitTree root : processor.getCompilationUnits()) {
+            filePdgs.put(root, buildPdgForFile(processor, root));
+        }
+        return filePdgs;
+    }
+
+    @SuppressWarnings("try")
+    private FilePdg buildPdgForMethods(final FileProcessor processor, final Collection<MethodTree> methods) {
+        // Build the PDG for each method in the compiled file, numbering the nodes of each method from 0. The stream
+        // keeps the order of the methods even when it is parallel.
+        final Stream<MethodTree> methodStream = parallel ? methods.parallelStream() : methods.stream();
+        Set<MethodPdg> graphs = methodStream
+                .map(methodAst -> buildPdg(processor, methodAst, new AtomicLong()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        // Give each method a contiguous range of ids in the order of the methods, so the ids do not depend on how
+        // the builds were scheduled.
+        long firstNodeId = 0;
+        for (final MethodPdg graph : graphs) {
+            graph.setFirstNodeId(firstNodeId);
+            firstNodeId += graph.nodes().size();
+        }
+
+        // Merge step: the calls are found once every PDG of the file is built.
+        final Set<PdgEdge> localCalls;
+        try (PhaseTimer timer = PhaseTimer.start(metrics, Phase.CALLS)) {
+            localCalls = findLocalMethodCalls(graphs);
+        }
 
         return new FilePdg(graphs, localCalls);
     }
@@ -62,14 +304,135 @@ public class PdgBuilder {
      * @return The PDG for the method.
      */
     public MethodPdg buildPdg(final FileProcessor processor, final MethodTree methodAst) {
+        return buildPdg(processor, methodAst, new AtomicLong());
+    }
+
+    @SuppressWarnings("try")
+    private MethodPdg buildPdg(final FileProcessor processor, final MethodTree methodAst, final AtomicLong nodeIds) {
         final ControlFlowGraph methodCfg = processor.getMethodCfg(methodAst);
+        final MethodMetrics methodMetrics = metrics == null ? null
+                : metrics.method(ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(methodAst)));
+
+        final MethodPdg methodPdg;
+        try (PhaseTimer timer = PhaseTimer.start(methodMetrics, Phase.ELEMENTS)) {
+            methodPdg = createNodes(processor, methodAst, methodCfg, nodeIds);
+        }
+
+        // The nodes are created from the current tree, so an unchanged method only needs its edges.
+        String cacheKey = null;
+        if (methodCache != null) {
+            cacheKey = methodCache.key(methodPdg, cacheConfiguration());
+            if (methodCache.restore(cacheKey, methodPdg)) {
+                if (methodMetrics != null) {
+                    methodMetrics.setCached(true);
+                    recordSize(methodMetrics, methodPdg);
+                }
+                return methodPdg;
+            }
+        }
+
+        try (PhaseTimer timer = PhaseTimer.start(methodMetrics, Phase.CONTROL)) {
+            CfgTraverser cfgTraverser = new CfgTraverser(controlEdges);
+            cfgTraverser.traverseEdges(methodPdg, methodCfg);
+        }
+
+        final AnalysisBudget.Meter budget = analysisBudget.isUnlimited() ? null : analysisBudget.start();
+        try {
+            if (fusedAnalysis && dataflowEngine == DataflowEngine.FIXPOINT && nameFlowEngine == NameFlowEngine.FIXPOINT) {
+                final long transfers = analyze(methodPdg, methodMetrics, Phase.FUSED, budget, this::addFusedEdges);
+                if (methodMetrics != null) {
+                    methodMetrics.setFusedTransfers(transfers);
+                }
+            } else {
+                final long dataflowTransfers = analyze(methodPdg, methodMetrics, Phase.DATAFLOW, budget, this::addDataFlowEdges);
+                final long nameFlowTransfers = analyze(methodPdg, methodMetrics, Phase.NAMEFLOW, budget, this::addNameFlowEdges);
+                if (methodMetrics != null && dataflowTransfers >= 0) {
+                    methodMetrics.setDataflowTransfers(dataflowTransfers);
+                }
+                if (methodMetrics != null && nameFlowTransfers >= 0) {
+                    methodMetrics.setNameFlowTransfers(nameFlowTransfers);
+                }
+            }
+        } catch (BudgetExceededException e) {
+            // Keep the method, with the control edges only, rather than stall the whole file.
+            logger.warn("Analysis budget exceeded, keeping the control edges only for method: "
+                    + ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(methodAst)) + ": " + e.getMessage());
+            methodPdg.removeEdges(PdgEdge.Type.DATA);
+            methodPdg.removeEdges(PdgEdge.Type.NAME);
+            methodPdg.setExceededLimit(e.getLimit());
+            if (methodMetrics != null) {
+                methodMetrics.setExceededLimit(e.getLimit());
+            }
+        }
+
+        // A method over budget is analyzed again next time, the budget may have changed.
+        if (methodCache != null && methodPdg.getExceededLimit() == null) {
+            methodCache.store(cacheKey, methodPdg);
+        }
+        if (methodMetrics != null) {
+            recordSize(methodMetrics, methodPdg);
+        }
+        return methodPdg;
+    }
+
+    /**
+     * Returns the options that change the edges of the PDGs, so that the method cache does not reuse the edges built
+     * with other options.
+     *
+     * @return the options of the builder in the keys of the method cache
+     */
+    private String cacheConfiguration() {
+        return controlEdges + "," + dataflowEngine + "," + nameFlowEngine + "," + fusedAnalysis;
+    }
+
+    /**
+     * Runs an analysis adding edges to the PDG of a method, measured as a phase and reported as an
+     * {@link AnalysisEvent}, also when it exceeds the budget of the method.
+     *
+     * @param methodPdg     the PDG to add the edges to
+     * @param methodMetrics where to record the phase, or {@code null}
+     * @param phase         the phase of the analysis
+     * @param budget        the meter of the budget of the method, or {@code null}
+     * @param analysis      the analysis, returning how many transfers its fixpoint applied or -1
+     * @return the number of transfers returned by the analysis
+     * @throws BudgetExceededException if the analysis exceeds the budget of the method
+     */
+    @SuppressWarnings("try")
+    private long analyze(final MethodPdg methodPdg, final MethodMetrics methodMetrics, final Phase phase,
+                         final AnalysisBudget.Meter budget, final ToLongBiFunction<MethodPdg, AnalysisBudget.Meter> analysis) {
+        final AnalysisEvent event = new AnalysisEvent();
+        event.begin();
+        event.transfers = -1;
+        try (PhaseTimer timer = PhaseTimer.start(methodMetrics, phase)) {
+            event.transfers = analysis.applyAsLong(methodPdg, budget);
+            return event.transfers;
+        } catch (BudgetExceededException e) {
+            event.exceededLimit = e.getLimit().name();
+            throw e;
+        } finally {
+            // The analyses over budget are reported too, they are the slowest ones.
+            event.end();
+            if (event.shouldCommit()) {
+                final MethodTree methodAst = methodPdg.getMethodAst();
+                event.file = methodPdg.getSourceFileName();
+                event.method = ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(methodAst));
+                event.analysis = phase.name();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Creates the PDG of a method with its nodes, one per PDG element and per special block.
+     */
+    private MethodPdg createNodes(final FileProcessor processor, final MethodTree methodAst, final ControlFlowGraph methodCfg, final AtomicLong nodeIds) {
         final ClassTree classTree = processor.getClassTree(methodAst);
 
         final Set<Tree> pdgElements = retrievePdgElements(methodAst);
-        final Map<Node, Tree> cfgNodesToPdgElements = buildCfgNodeToPdgElementMap(pdgElements, methodCfg);
+        final Map<Node, Tree> cfgNodesToPdgElements = new CfgNodesIndex(methodCfg, pdgElements).index(methodAst);
 
         // Add the nodes to the PDG.
-        MethodPdg methodPdg = new MethodPdg(processor, classTree, methodAst, methodCfg, cfgNodesToPdgElements);
+        MethodPdg methodPdg = new MethodPdg(processor, classTree, methodAst, methodCfg, cfgNodesToPdgElements, nodeIds, labelStyle);
 
         methodPdg.registerSpecialBlock(methodCfg.getEntryBlock(), "Entry");
         for (Tree pdgElement : pdgElements) {
@@ -79,40 +442,19 @@ public class PdgBuilder {
         if (methodCfg.getExceptionalExitBlock().getPredecessors().size() > 0) {
             methodPdg.registerSpecialBlock(methodCfg.getExceptionalExitBlock(), "ExceptionalExit");
         }
-        CfgTraverser cfgTraverser = new CfgTraverser();
-        cfgTraverser.traverseEdges(methodPdg, methodCfg);
-
-        addDataFlowEdges(methodPdg);
-        addNameFlowEdges(methodPdg);
-
         return methodPdg;
     }
 
-    private Map<Node, Tree> buildCfgNodeToPdgElementMap(final Set<Tree> pdgElements, final ControlFlowGraph cfg) {
-        final UnmodifiableIdentityHashMap<UnaryTree, BinaryTree> postfixNodeLookup = cfg.getPostfixNodeLookup();
-
-        // An identity hashmap is needed so that the nodes are compared by reference instead of equality.
-        Map<Node, Tree> cfgNodesToPdgElements = new IdentityHashMap<>();
-        for (final Tree pdgElement : pdgElements) {
-            Set<Node> found = new IdentityArraySet<>();
-            TreeScanner<Void, Set<Node>> scanner = new CfgNodesScanner(cfg);
-            scanner.scan(pdgElement, found);
-
-            // Retrieve postfix operations.
-            final BinaryTree binaryTree = postfixNodeLookup.get(pdgElement);
-            if (binaryTree != null) {
-                scanner.scan(binaryTree, found);
-            }
-
-            found.forEach(cfgNode -> cfgNodesToPdgElements.put(cfgNode, pdgElement));
-        }
-        return cfgNodesToPdgElements;
+    private static void recordSize(final MethodMetrics methodMetrics, final MethodPdg methodPdg) {
+        methodMetrics.setCfgBlocks(methodPdg.getMethodCfg().getAllBlocks().size());
+        methodMetrics.setPdgSize(methodPdg.nodes().size(), methodPdg.edges().size());
     }
 
     private Set<Tree> retrievePdgElements(final MethodTree methodAst) {
         // TODO: Refactor to return the set of pdgElements by overriding `reduce`.
         TreeScanner<Void, Set<Tree>> pdgElementScanner = new PdgElementScanner(methodAst);
-        Set<Tree> pdgElements = new IdentityArraySet<>();
+        // Trees are compared by reference, and the insertion order gives the order of the PDG nodes.
+        Set<Tree> pdgElements = new LinkedHashSet<>();
         pdgElementScanner.scan(methodAst, pdgElements);
         return pdgElements;
     }
@@ -124,7 +466,7 @@ public class PdgBuilder {
      * @return The set of local method calls between methods in the file
      */
     private Set<PdgEdge> findLocalMethodCalls(final Set<MethodPdg> graphs) {
-        Set<PdgEdge> localCalls = new HashSet<>();
+        Set<PdgEdge> localCalls = new LinkedHashSet<>();
         // Build the method calls between files.
         HashMap<String, MethodPdg> methodNames = new HashMap<>();
         // Register local method invocations.
@@ -136,15 +478,7 @@ public class PdgBuilder {
 
         for (MethodPdg methodPdg : graphs) {
             for (Tree pdgElement : methodPdg.getPdgElements()) {
-                TreeScanner<Set<ExecutableElement>, Void> localMethodCallVisitor = new LocalMethodCallVisitor();
-                Set<ExecutableElement> methodCalls = localMethodCallVisitor.scan(pdgElement, null);
-
-                if (methodCalls == null) {
-                    continue;
-                }
-
-                for (final ExecutableElement methodCall : methodCalls) {
-                    String methodName = ElementUtils.getQualifiedName(methodCall);
+                for (final String methodName : calledMethods(pdgElement)) {
                     if (methodNames.containsKey(methodName)) {
                         PdgNode from = methodPdg.getNode(pdgElement);
                         final MethodPdg targetPdg = methodNames.get(methodName);
@@ -158,25 +492,57 @@ public class PdgBuilder {
         return localCalls;
     }
 
+    /**
+     * Returns the qualified names of the methods called by a PDG element.
+     *
+     * @param pdgElement The PDG element
+     * @return The names of the methods called
+     */
+    private static Set<String> calledMethods(final Tree pdgElement) {
+        TreeScanner<Set<ExecutableElement>, Void> localMethodCallVisitor = new LocalMethodCallVisitor();
+        Set<ExecutableElement> methodCalls = localMethodCallVisitor.scan(pdgElement, null);
+        if (methodCalls == null) {
+            return Collections.emptySet();
+        }
+        Set<String> methodNames = new LinkedHashSet<>();
+        for (final ExecutableElement methodCall : methodCalls) {
+            methodNames.add(ElementUtils.getQualifiedName(methodCall));
+        }
+        return methodNames;
+    }
+
     /**
      * Add the data flow edges to the PDG.
      *
      * @param methodPdg The PDG to add the edges to.
+     * @param budget    The meter of the budget of the method, or {@code null}.
+     * @return How many times the fixpoint applied the transfer function, or -1 for the bit-vector engine.
      */
-    private void addDataFlowEdges(final MethodPdg methodPdg) {
+    private long addDataFlowEdges(final MethodPdg methodPdg, final AnalysisBudget.Meter budget) {
         // This implementation reuses the legacy dataflow implementation with its {@link Edge} and {@link VariableReference}.
         // Ideally, the analysis would use the {@link PdgNode} and {@link PdgEdge} classes so there is no need to convert
         // between the two.
-        final ForwardAnalysis<VariableReference, DataflowStore, DataflowTransfer> analysis = runAnalysis(methodPdg.getMethodCfg(), methodPdg.getPdgElements());
-        Set<Edge> edges = new HashSet<>();
-        if (analysis.getRegularExitStore() != null) {
-            edges.addAll(analysis.getRegularExitStore().getEdges());
-        }
-
-        if (analysis.getExceptionalExitStore() != null) {
-            edges.addAll(analysis.getExceptionalExitStore().getEdges());
+        final Set<Edge> edges;
+        final long transfers;
+        if (dataflowEngine == DataflowEngine.BIT_VECTOR) {
+            edges = new BitVectorDataflow().analyze(methodPdg.getMethodCfg(), methodPdg.getMethodAst());
+            transfers = -1;
+        } else {
+            final DataflowTransfer transfer = runAnalysis(methodPdg.getMethodCfg(), budget);
+            edges = transfer.getEdges();
+            transfers = transfer.getTransferCount();
         }
+        convertDataflowEdges(methodPdg, edges);
+        return transfers;
+    }
 
+    /**
+     * Converts the dataflow edges to PDG edges and adds them to the PDG.
+     *
+     * @param methodPdg The PDG to add the edges to.
+     * @param edges     The edges found by the dataflow analysis.
+     */
+    private void convertDataflowEdges(final MethodPdg methodPdg, final Set<Edge> edges) {
         for (final Edge edge : edges) {
             // If the from node is a parameter, the from PDG node is the Entry node.
             PdgNode from;
@@ -199,43 +565,87 @@ public class PdgBuilder {
      * Run the name flow analysis and add nameflow edges to the PDG.
      *
      * @param methodPdg The PDG to run the analysis on.
+     * @param budget    The meter of the budget of the method, or {@code null}.
+     * @return How many times the fixpoint applied the transfer function, or -1 for the single-pass engine.
      */
-    private void addNameFlowEdges(final MethodPdg methodPdg) {
+    private long addNameFlowEdges(final MethodPdg methodPdg, final AnalysisBudget.Meter budget) {
         ControlFlowGraph controlFlowGraph = methodPdg.getMethodCfg();
 
-        // Perform the nameflow analysis.
-        ForwardAnalysis<NameRecord, NameFlowStore, NameFlowTransfer> analysis = new ForwardAnalysisImpl<>(new NameFlowTransfer());
-        analysis.performAnalysis(controlFlowGraph);
+        final Set<PdgEdge> edges = new HashSet<>();
+        final FirstNodes firstNodes = new FirstNodes(controlFlowGraph);
+        long transfers = -1;
+        if (nameFlowEngine == NameFlowEngine.SINGLE_PASS) {
+            for (final NameFlowStore store : new SinglePassNameFlow().analyze(controlFlowGraph, methodPdg.getMethodAst())) {
+                edges.addAll(convertNameFlowStoreToPdgEdges(methodPdg, store, firstNodes));
+            }
+        } else {
+            // Perform the nameflow analysis.
+            final NameFlowTransfer transfer = new NameFlowTransfer();
+            transfer.setBudget(budget);
+            ForwardAnalysis<NameRecord, NameFlowStore, NameFlowTransfer> analysis = new ForwardAnalysisImpl<>(transfer);
+            analysis.performAnalysis(controlFlowGraph);
+            transfers = transfer.getTransferCount();
+
+            // Convert the name flow analysis results to PDG edges.
+            if (analysis.getRegularExitStore() != null) {
+                edges.addAll(convertNameFlowStoreToPdgEdges(methodPdg, analysis.getRegularExitStore(), firstNodes));
+            }
+            if (analysis.getExceptionalExitStore() != null) {
+                edges.addAll(convertNameFlowStoreToPdgEdges(methodPdg, analysis.getExceptionalExitStore(), firstNodes));
+            }
+        }
+
+        // Add the PDG edges to the PDG.
+        for (final PdgEdge edge : edges) {
+            methodPdg.addEdge(edge);
+        }
+        return transfers;
+    }
+
+    /**
+     * Run the dataflow and name flow analyses in one traversal of the CFG and add their edges to the PDG.
+     *
+     * @param methodPdg The PDG to run the analyses on.
+     * @param budget    The meter of the budget of the method, or {@code null}.
+     * @return How many times the fixpoint applied the transfer function.
+     */
+    private long addFusedEdges(final MethodPdg methodPdg, final AnalysisBudget.Meter budget) {
+        final FusedTransfer transfer = new FusedTransfer();
+        transfer.setBudget(budget);
+        ForwardAnalysis<VariableReference, FusedStore, FusedTransfer> analysis = new ForwardAnalysisImpl<>(transfer);
+        analysis.performAnalysis(methodPdg.getMethodCfg());
+
+        convertDataflowEdges(methodPdg, transfer.getDataflowEdges());
 
-        // Convert the name flow analysis results to PDG edges.
         final Set<PdgEdge> edges = new HashSet<>();
+        final FirstNodes firstNodes = new FirstNodes(methodPdg.getMethodCfg());
         if (analysis.getRegularExitStore() != null) {
-            edges.addAll(convertNameFlowStoreToPdgEdges(methodPdg, analysis.getRegularExitStore()));
+            edges.addAll(convertNameFlowStoreToPdgEdges(methodPdg, analysis.getRegularExitStore().getNameFlowStore(), firstNodes));
         }
         if (analysis.getExceptionalExitStore() != null) {
-            edges.addAll(convertNameFlowStoreToPdgEdges(methodPdg, analysis.getExceptionalExitStore()));
+            edges.addAll(convertNameFlowStoreToPdgEdges(methodPdg, analysis.getExceptionalExitStore().getNameFlowStore(), firstNodes));
         }
-
-        // Add the PDG edges to the PDG.
         for (final PdgEdge edge : edges) {
             methodPdg.addEdge(edge);
         }
+        return transfer.getTransferCount();
     }
 
     /**
      * Converts the name flow store to a set of PDG edges.
      *
-     * @param methodPdg The PDG where the edges will be added.
-     * @param store     The name flow store to convert.
+     * @param methodPdg  The PDG where the edges will be added.
+     * @param store      The name flow store to convert.
+     * @param firstNodes The nodes the edges start from and point to.
      * @return The set of PDG edges to add to the method PDG.
      */
-    private Set<PdgEdge> convertNameFlowStoreToPdgEdges(final MethodPdg methodPdg, final NameFlowStore store) {
+    private Set<PdgEdge> convertNameFlowStoreToPdgEdges(final MethodPdg methodPdg, final NameFlowStore store, final FirstNodes firstNodes) {
         Set<PdgEdge> edges = new HashSet<>();
         PdgNode entryNode = methodPdg.getStartNode();
 
         // Add the edges for the returned variables.
         store.getReturnedVariables().forEach((name, node) -> {
-            Node declarationNode = store.getVariableNode(name);
+            Node declarationNode = firstNodes.declaration(name, store);
             PdgNode to = methodPdg.getNode(declarationNode);
             if (to != null) {
                 PdgEdge pdgEdge = new PdgEdge(entryNode, to, PdgEdge.Type.NAME);
@@ -245,13 +655,13 @@ public class PdgBuilder {
 
         // Adds edges for the variables names.
         store.getXi().forEach((variable, names) -> {
-            PdgNode from = methodPdg.getNode(variable);
+            PdgNode from = methodPdg.getNode(firstNodes.target(variable));
             names.forEach(nameRecord -> {
                 if (nameRecord.isMethod() || nameRecord.getName().equals(variable.toString())) {
                     return;
                 }
 
-                Node node = store.getVariableNode(nameRecord.getName());
+                Node node = firstNodes.declaration(nameRecord.getName(), store);
                 if (node != null) {
                     PdgNode to = methodPdg.getNode(node);
 
@@ -274,16 +684,119 @@ public class PdgBuilder {
         return edges;
     }
 
+    /**
+     * The first nodes of a method, in the order they were created, that assign each variable and that declare each
+     * name. A name flow store keys a variable by one of the equal nodes assigning it, and a name by one of its
+     * declarations, which one depending on the order the analysis visited the nodes in. The edges use the first nodes
+     * instead, so that they do not depend on the name flow engine.
+     */
+    private static final class FirstNodes {
+        private final Map<Node, Node> targets = new HashMap<>();
+        private final Map<String, Node> declarations = new HashMap<>();
+
+        FirstNodes(final ControlFlowGraph cfg) {
+            for (final Block block : cfg.getDepthFirstOrderedBlocks()) {
+                for (final Node node : block.getNodes()) {
+                    if (node instanceof AssignmentNode) {
+                        targets.merge(((AssignmentNode) node).getTarget(), ((AssignmentNode) node).getTarget(), FirstNodes::first);
+                    } else if (node instanceof MethodInvocationNode) {
+                        targets.merge(((MethodInvocationNode) node).getTarget(), ((MethodInvocationNode) node).getTarget(), FirstNodes::first);
+                    } else if (node instanceof VariableDeclarationNode) {
+                        declarations.merge(((VariableDeclarationNode) node).getName(), node, FirstNodes::first);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the first node assigning the variable of a key of {@code xi}.
+         */
+        Node target(final Node variable) {
+            return targets.getOrDefault(variable, variable);
+        }
+
+        /**
+         * Returns the first declaration of a name declared in a store, the parameters being declared by the store only.
+         */
+        Node declaration(final String name, final NameFlowStore store) {
+            final Node node = store.getVariableNode(name);
+            return node == null ? null : declarations.getOrDefault(name, node);
+        }
+
+        private static Node first(final Node left, final Node right) {
+            return left.getUid() <= right.getUid() ? left : right;
+        }
+    }
+
     /**
      * Runs the dataflow analysis for a given method.
      *
      * @param methodControlFlowGraph The CFG of the method to analyze
-     * @param pdgElements
-     * @return The spent dataflow analysis.
+     * @param budget                 The meter of the budget of the method, or {@code null}
+     * @return The transfer function of the spent analysis, holding the edges found.
      */
-    private ForwardAnalysis<VariableReference, DataflowStore, DataflowTransfer> runAnalysis(ControlFlowGraph methodControlFlowGraph, final Set<Tree> pdgElements) {
-        ForwardAnalysis<VariableReference, DataflowStore, DataflowTransfer> analysis = new ForwardAnalysisImpl<>(new DataflowTransfer());
+    private DataflowTransfer runAnalysis(ControlFlowGraph methodControlFlowGraph, AnalysisBudget.Meter budget) {
+        final DataflowTransfer transfer = new DataflowTransfer();
+        transfer.setBudget(budget);
+        ForwardAnalysis<VariableReference, DataflowStore, DataflowTransfer> analysis = new ForwardAnalysisImpl<>(transfer);
         analysis.performAnalysis(methodControlFlowGraph);
-        return analysis;
+        return transfer;
+    }
+
+    /**
+     * The engines computing the dataflow edges.
+     */
+    public enum DataflowEngine {
+        /**
+         * The Checker Framework fixpoint analysis with {@link DataflowStore} and {@link DataflowTransfer}.
+         */
+        FIXPOINT,
+        /**
+         * The {@link BitVectorDataflow} analysis, faster and allocating less on large methods.
+         */
+        BIT_VECTOR
+    }
+
+    /**
+     * The engines computing the name flow edges.
+     */
+    public enum NameFlowEngine {
+        /**
+         * The Checker Framework fixpoint analysis with {@link NameFlowStore} and {@link NameFlowTransfer}.
+         */
+        FIXPOINT,
+        /**
+         * The {@link SinglePassNameFlow} scan, computing the stores of the exits of the method without a fixpoint.
+         */
+        SINGLE_PASS
+    }
+
+    /**
+     * The kinds of control edges between the nodes of a PDG.
+     */
+    public enum ControlEdges {
+        /**
+         * An edge between every pair of nodes that follow each other in the CFG.
+         */
+        SUCCESSION,
+        /**
+         * An edge from each branching node to the nodes that are control dependent on it, computed with the
+         * {@link PostDominatorTree}. There are much fewer edges than with {@link #SUCCESSION}.
+         */
+        DEPENDENCE
+    }
+
+    /**
+     * The styles of the labels of the PDG nodes.
+     */
+    public enum LabelStyle {
+        /**
+         * The PDG element pretty-printed by javac, after desugaring if the files are compiled.
+         */
+        PRETTY,
+        /**
+         * The PDG element as written in the source file.
+         */
+        SOURCE
     }
 }
@@ -1,5 +1,7 @@
 package org.checkerframework.flexeme.pdg;
 
+import com.sun.source.tree.Tree;
+
 /**
  * Represent a node in a PDG.
  * A PDG node is a PDG element (See {@link org.checkerframework.flexeme.PdgElementScanner}) or a special entry/exit node from the CFG such as
@@ -7,21 +9,53 @@ package org.checkerframework.flexeme.pdg;
  */
 public class PdgNode {
     private final MethodPdg pdg;
-    private final String label;
-    private final long id;
+    private final long index; // The index of the node in its method, see getId().
     private final long startLine;
     private final long endLine;
 
+    // The label of a PDG element is rendered from its tree, or sliced from the source, the first time it is read.
+    private final Tree tree;
+    private final CharSequence source;
+    private final int startOffset;
+    private final int endOffset;
+    private volatile String label;
+
     public PdgNode(MethodPdg pdg, final long nodeId, final String label, final long lineStart, final long lineEnd) {
-        this.pdg = pdg;
-        this.id = nodeId;
+        this(pdg, nodeId, null, null, -1, -1, lineStart, lineEnd);
         this.label = label;
+    }
+
+    /**
+     * Creates the node of a PDG element, whose label is rendered when first read.
+     *
+     * @param pdg         the PDG of the node
+     * @param nodeId      the index of the node in its method
+     * @param tree        the PDG element, pretty-printed if there is no source
+     * @param source      the source of the compilation unit, or null to pretty-print the tree
+     * @param startOffset the start position of the tree in the source
+     * @param endOffset   the end position of the tree in the source
+     * @param lineStart   the first line of the tree
+     * @param lineEnd     the last line of the tree
+     */
+    public PdgNode(MethodPdg pdg, final long nodeId, final Tree tree, final CharSequence source, final int startOffset, final int endOffset, final long lineStart, final long lineEnd) {
+        this.pdg = pdg;
+        this.index = nodeId;
+        this.tree = tree;
+        this.source = source;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
         this.startLine = lineStart;
         this.endLine = lineEnd;
     }
 
+    /**
+     * Returns the id of the node, unique in its file: the index of the node in its method plus the first id of the
+     * method, see {@link MethodPdg#getFirstNodeId()}.
+     *
+     * @return the id of the node
+     */
     public long getId() {
-        return id;
+        return pdg.getFirstNodeId() + index;
     }
 
     public long getStartLine() {
@@ -34,7 +68,12 @@ public class PdgNode {
 
     @Override
     public String toString() {
-        return label;
+        String rendered = label;
+        if (rendered == null) {
+            rendered = source == null ? tree.toString() : source.subSequence(startOffset, endOffset).toString();
+            label = rendered;
+        }
+        return rendered;
     }
 
     public MethodPdg getPdg() {
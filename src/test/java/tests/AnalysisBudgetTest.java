@@ -0,0 +1,108 @@
+package tests;
+
+import org.checkerframework.flexeme.AnalysisBudget;
+import org.checkerframework.flexeme.BinaryPdgReader;
+import org.checkerframework.flexeme.BinaryPdgWriter;
+import org.checkerframework.flexeme.BudgetExceededException;
+import org.checkerframework.flexeme.DotPrinter;
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.metrics.ExtractionMetrics;
+import org.checkerframework.flexeme.metrics.MethodMetrics;
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.CompactPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AnalysisBudgetTest {
+    private static final String DOES_NOT_TERMINATE = "src/test/resources/DoesNotTerminate.java";
+
+    @Test
+    public void testUnlimited() {
+        CompactPdg pdg = build(new PdgBuilder());
+        assertNull(pdg.getExceededLimit());
+        assertTrue(pdg.edgeCount(PdgEdge.Type.DATA) > 0);
+        assertTrue(pdg.edgeCount(PdgEdge.Type.NAME) > 0);
+    }
+
+    @Test
+    public void testTransfers() throws IOException {
+        PdgBuilder builder = new PdgBuilder();
+        builder.setAnalysisBudget(new AnalysisBudget(0, 10, 0));
+        ExtractionMetrics metrics = new ExtractionMetrics(List.of(DOES_NOT_TERMINATE));
+        builder.setMetrics(metrics);
+        CompactPdg pdg = build(builder);
+
+        assertEquals(AnalysisBudget.Limit.TRANSFERS, pdg.getExceededLimit());
+        assertEquals(0, pdg.edgeCount(PdgEdge.Type.DATA));
+        assertEquals(0, pdg.edgeCount(PdgEdge.Type.NAME));
+        assertTrue(pdg.edgeCount(PdgEdge.Type.CONTROL) > 0);
+
+        MethodMetrics method = metrics.getMethods().iterator().next();
+        assertEquals(AnalysisBudget.Limit.TRANSFERS, method.getExceededLimit());
+
+        CompactFilePdg filePdg = new CompactFilePdg(List.of(pdg), new long[0], new long[0]);
+        String dot = new DotPrinter().printDot(filePdg);
+        assertTrue(dot, dot.contains("budget_exceeded = \"TRANSFERS\";"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryPdgWriter.write(filePdg, out);
+        CompactFilePdg read = BinaryPdgReader.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(AnalysisBudget.Limit.TRANSFERS, read.getGraphs().get(0).getExceededLimit());
+        assertEquals(dot, new DotPrinter().printDot(read));
+    }
+
+    @Test
+    public void testStoreSize() {
+        PdgBuilder builder = new PdgBuilder();
+        builder.setAnalysisBudget(new AnalysisBudget(0, 0, 1));
+        assertEquals(AnalysisBudget.Limit.STORE_SIZE, build(builder).getExceededLimit());
+    }
+
+    @Test
+    public void testFused() {
+        PdgBuilder builder = new PdgBuilder();
+        builder.setFusedAnalysis(true);
+        builder.setAnalysisBudget(new AnalysisBudget(0, 10, 0));
+        CompactPdg pdg = build(builder);
+        assertEquals(AnalysisBudget.Limit.TRANSFERS, pdg.getExceededLimit());
+        assertEquals(0, pdg.edgeCount(PdgEdge.Type.DATA));
+    }
+
+    @Test
+    public void testTime() throws InterruptedException {
+        AnalysisBudget.Meter meter = new AnalysisBudget(1, 0, 0).start();
+        Thread.sleep(5);
+        try {
+            // The clock is checked every few transfers.
+            for (int i = 0; i < 1000; i++) {
+                meter.transfer(() -> 0);
+            }
+            fail("Expected the time limit to be exceeded");
+        } catch (BudgetExceededException e) {
+            assertEquals(AnalysisBudget.Limit.TIME, e.getLimit());
+        }
+        assertTrue(meter.getTransfers() < 1000);
+        assertFalse(new AnalysisBudget(1, 0, 0).isUnlimited());
+        assertTrue(AnalysisBudget.UNLIMITED.isUnlimited());
+    }
+
+    private static CompactPdg build(final PdgBuilder builder) {
+        FileProcessor processor = new PdgExtractor(true).compileFile(DOES_NOT_TERMINATE, null, false, "", "");
+        CompactFilePdg filePdg = builder.buildPdgForFile(processor).freeze();
+        assertEquals(1, filePdg.getGraphs().size());
+        return filePdg.getGraphs().get(0);
+    }
+}
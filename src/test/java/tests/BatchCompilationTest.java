@@ -0,0 +1,66 @@
+package tests;
+
+import com.sun.source.tree.CompilationUnitTree;
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.FilePdg;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for compiling several files in a single compilation task.
+ */
+public class BatchCompilationTest {
+    private static final String DATAFLOW_FILE = "src/test/resources/DataFlow.java";
+    private static final String LOCAL_CALLS_FILE = "src/test/resources/LocalMethodCalls.java";
+
+    private static FileProcessor processor;
+    private static Map<CompilationUnitTree, FilePdg> filePdgs;
+
+    @BeforeClass
+    public static void setUp() {
+        PdgExtractor extractor = new PdgExtractor();
+        processor = extractor.compileFiles(List.of(DATAFLOW_FILE, LOCAL_CALLS_FILE), "build/", false, "", "");
+        filePdgs = new PdgBuilder().buildPdgForFiles(processor);
+    }
+
+    @Test
+    public void testOneFilePdgPerCompilationUnit() {
+        assertEquals(2, filePdgs.size());
+        assertEquals(Set.of("DataFlow"), classNames(filePdgs.get(PdgExtractor.findCompilationUnit(processor, DATAFLOW_FILE))));
+        assertEquals(Set.of("LocalMethodCalls"), classNames(filePdgs.get(PdgExtractor.findCompilationUnit(processor, LOCAL_CALLS_FILE))));
+    }
+
+    @Test
+    public void testSameResultAsSingleFile() {
+        FileProcessor singleProcessor = new PdgExtractor().compileFile(DATAFLOW_FILE, "build/", false, "", "");
+        MethodPdg expected = new PdgBuilder().buildPdg(singleProcessor, singleProcessor.getMethod("exitStores"));
+        MethodPdg actual = new PdgBuilder().buildPdg(processor, processor.getMethod("exitStores"));
+
+        PdgUtils.assertEquals(expected.nodes().stream().map(Object::toString).collect(Collectors.toSet()), actual.nodes());
+        assertEquals(expected.edges().size(), actual.edges().size());
+    }
+
+    @Test
+    public void testLocalCallsStayInFile() {
+        final FilePdg localCalls = filePdgs.get(PdgExtractor.findCompilationUnit(processor, LOCAL_CALLS_FILE));
+        assertTrue(localCalls.containsCall("LocalMethodCalls.local()", "int a = bar(1, 2)", "LocalMethodCalls.bar(int,int)"));
+
+        final FilePdg dataflow = filePdgs.get(PdgExtractor.findCompilationUnit(processor, DATAFLOW_FILE));
+        assertTrue(dataflow.getLocalCalls().isEmpty());
+    }
+
+    private static Set<String> classNames(final FilePdg filePdg) {
+        return filePdg.getGraphs().stream().map(MethodPdg::getClassName).collect(Collectors.toSet());
+    }
+}
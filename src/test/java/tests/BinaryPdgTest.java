@@ -0,0 +1,95 @@
+package tests;
+
+import org.checkerframework.flexeme.BinaryPdgReader;
+import org.checkerframework.flexeme.BinaryPdgWriter;
+import org.checkerframework.flexeme.DotPrinter;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.CompactPdg;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BinaryPdgTest {
+    private static final String CALC = "src/test/resources/Calc.java";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        CompactFilePdg snapshot = new PdgExtractor().extractSnapshot(CALC, "", "");
+        byte[] bytes = write(snapshot);
+        CompactFilePdg read = BinaryPdgReader.read(new ByteArrayInputStream(bytes));
+
+        assertEquals(new DotPrinter().printDot(snapshot), new DotPrinter().printDot(read));
+
+        Map<String, CompactPdg> graphs = new HashMap<>();
+        for (final CompactPdg graph : read.getGraphs()) {
+            graphs.put(graph.getQualifiedName(), graph);
+        }
+        for (final CompactPdg graph : snapshot.getGraphs()) {
+            CompactPdg readGraph = graphs.get(graph.getQualifiedName());
+            assertEquals(graph.getParametersType(), readGraph.getParametersType());
+            for (final PdgEdge.Type type : PdgEdge.Type.values()) {
+                assertEquals(graph.edgeCount(type), readGraph.edgeCount(type));
+            }
+        }
+
+        // Smaller than the DOT graph, which repeats the style of every edge.
+        assertTrue(bytes.length < new DotPrinter().printDot(snapshot).length());
+    }
+
+    @Test
+    public void testRunBinary() throws IOException {
+        PdgExtractor extractor = new PdgExtractor();
+        Path file = folder.getRoot().toPath().resolve("pdg.bin");
+        extractor.runBinary(CALC, "", "", file.toString());
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            assertEquals(new DotPrinter().printDot(extractor.extractSnapshot(CALC, "", "")),
+                    new DotPrinter().printDot(BinaryPdgReader.read(in)));
+        }
+    }
+
+    @Test
+    public void testVersion() throws IOException {
+        byte[] bytes = write(new PdgExtractor().extractSnapshot(CALC, "", ""));
+        // The version follows the 4 bytes of the magic number.
+        bytes[4] = 99;
+        try {
+            BinaryPdgReader.read(new ByteArrayInputStream(bytes));
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("version"));
+        }
+
+        try {
+            BinaryPdgReader.read(new ByteArrayInputStream("digraph {".getBytes()));
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertEquals("Not a binary PDG", e.getMessage());
+        }
+    }
+
+    private static byte[] write(final CompactFilePdg filePdg) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryPdgWriter.write(filePdg, out);
+        return out.toByteArray();
+    }
+}
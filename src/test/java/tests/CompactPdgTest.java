@@ -0,0 +1,74 @@
+package tests;
+
+import org.checkerframework.flexeme.DotPrinter;
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.CompactPdg;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+import org.checkerframework.flexeme.pdg.PdgNode;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactPdgTest {
+    static FileProcessor processor;
+
+    @BeforeClass
+    public static void setUp() {
+        processor = new PdgExtractor().compileFile("src/test/resources/Switches.java", "build/", false, "", "");
+    }
+
+    @Test
+    public void testFreeze() {
+        final MethodPdg methodPdg = new PdgBuilder().buildPdg(processor, processor.getMethod("fallThrough"));
+        final CompactPdg compactPdg = methodPdg.freeze();
+
+        assertEquals(methodPdg.getMethodName(), compactPdg.getMethodName());
+        assertEquals(methodPdg.getParametersType(), compactPdg.getParametersType());
+
+        final List<PdgNode> nodes = new ArrayList<>(methodPdg.nodes());
+        assertEquals(nodes.size(), compactPdg.nodeCount());
+        for (int node = 0; node < nodes.size(); node++) {
+            assertEquals(nodes.get(node).getId(), compactPdg.getId(node));
+            assertEquals(nodes.get(node).toString(), compactPdg.getLabel(node));
+            assertEquals(nodes.get(node).getStartLine(), compactPdg.getStartLine(node));
+        }
+
+        // The compact PDG has the same edges, once.
+        final Set<String> expected = new HashSet<>();
+        for (final PdgEdge edge : methodPdg.edges()) {
+            expected.add(edge.from.getId() + " " + edge.to.getId() + " " + edge.type);
+        }
+        final Set<String> actual = new HashSet<>();
+        for (final PdgEdge.Type type : PdgEdge.Type.values()) {
+            for (int from = 0; from < compactPdg.nodeCount(); from++) {
+                for (int i = 0; i < compactPdg.outDegree(from, type); i++) {
+                    assertTrue(actual.add(compactPdg.getId(from) + " " + compactPdg.getId(compactPdg.getTarget(from, type, i)) + " " + type));
+                }
+            }
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), compactPdg.edgeCount());
+    }
+
+    @Test
+    public void testDotWithoutDuplicates() {
+        final String dot = new DotPrinter().printDot(new PdgBuilder().buildPdgForFile(processor));
+
+        final Set<String> lines = new HashSet<>();
+        for (final String line : dot.split(System.lineSeparator())) {
+            if (line.contains("->")) {
+                assertTrue(line, lines.add(line));
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package tests;
+
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static tests.PdgUtils.assertContainsEdge;
+import static tests.PdgUtils.assertEdgeCount;
+
+public class ControlDependenceTest {
+    private PdgBuilder pdgBuilder;
+
+    @Before
+    public void setUpMethod() {
+        pdgBuilder = new PdgBuilder();
+        pdgBuilder.setControlEdges(PdgBuilder.ControlEdges.DEPENDENCE);
+    }
+
+    @Test
+    public void testIfElse() {
+        FileProcessor processor = new PdgExtractor().compileFile("src/test/resources/Conditional.java", "build/", false, "", "");
+        final MethodPdg methodPdg = pdgBuilder.buildPdg(processor, processor.getMethod("ifElse"));
+
+        assertContainsEdge("Entry", "int x = 0", methodPdg);
+        assertContainsEdge("Entry", "(x == 0)", methodPdg);
+        assertContainsEdge("(x == 0)", "x = 1", methodPdg);
+        assertContainsEdge("(x == 0)", "x = 2", methodPdg);
+        assertEdgeCount(4, PdgEdge.Type.CONTROL, methodPdg);
+        assertContainsEdge("Exit", "Entry", PdgEdge.Type.EXIT, methodPdg);
+    }
+
+    @Test
+    public void testLoop() {
+        FileProcessor processor = new PdgExtractor().compileFile("src/test/resources/Loops.java", "build/", false, "", "");
+        final MethodPdg methodPdg = pdgBuilder.buildPdg(processor, processor.getMethod("countUpTo"));
+
+        assertContainsEdge("Entry", "int i = 1", methodPdg);
+        assertContainsEdge("Entry", "(i <= limit)", methodPdg);
+        // The statements that follow each other on every path are not control dependent on each other.
+        assertFalse(hasControlEdge("int i = 1", "(i <= limit)", methodPdg));
+    }
+
+    @Test
+    public void testCall() {
+        FileProcessor processor = new PdgExtractor().compileFile("src/test/resources/LocalMethodCalls.java", "build/", false, "", "");
+        final MethodPdg methodPdg = pdgBuilder.buildPdg(processor, processor.getMethod("local"));
+
+        // A call may throw, but the statements after it run on every path that does not leave the method.
+        assertContainsEdge("Entry", "int a = bar(1, 2)", methodPdg);
+        assertContainsEdge("Entry", "int b = bar(3)", methodPdg);
+        assertFalse(hasControlEdge("int a = bar(1, 2)", "int b = bar(3)", methodPdg));
+        assertTrue(methodPdg.edges().stream().filter(edge -> edge.type == PdgEdge.Type.CONTROL)
+                .allMatch(edge -> edge.from.toString().equals("Entry")));
+    }
+
+    @Test
+    public void testFewerEdges() {
+        FileProcessor processor = new PdgExtractor().compileFile("src/test/resources/DoesNotTerminate.java", "build/", false, "", "");
+        final MethodPdg succession = new PdgBuilder().buildPdg(processor, processor.getMethod("parsePaxHeaders"));
+        final MethodPdg dependence = pdgBuilder.buildPdg(processor, processor.getMethod("parsePaxHeaders"));
+
+        assertTrue(controlEdgeCount(dependence) < controlEdgeCount(succession));
+    }
+
+    private static boolean hasControlEdge(final String from, final String to, final MethodPdg methodPdg) {
+        return methodPdg.edges().stream().anyMatch(edge -> edge.type == PdgEdge.Type.CONTROL
+                && edge.from.toString().equals(from) && edge.to.toString().equals(to));
+    }
+
+    private static long controlEdgeCount(final MethodPdg methodPdg) {
+        return methodPdg.edges().stream().filter(edge -> edge.type == PdgEdge.Type.CONTROL).count();
+    }
+}
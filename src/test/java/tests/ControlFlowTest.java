@@ -0,0 +1,64 @@
+package tests;
+
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static tests.PdgUtils.assertContainsEdge;
+
+/**
+ * Tests the control flow edges of methods whose CFG has long chains of blocks.
+ */
+public class ControlFlowTest {
+    private static final int BRANCHES = 300;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(timeout = 60_000)
+    public void testElseIfLadder() throws IOException {
+        StringBuilder source = new StringBuilder("public class Ladder {\n    int ladder(int x) {\n        int a;\n        ");
+        for (int i = 0; i < BRANCHES; i++) {
+            source.append("if (x == ").append(i).append(") {\n            a = ").append(i).append(";\n        } else ");
+        }
+        source.append("{\n            a = -1;\n        }\n        return a;\n    }\n}\n");
+
+        MethodPdg methodPdg = buildPdg("Ladder", source.toString(), "ladder");
+        for (int i = 0; i < BRANCHES; i++) {
+            assertContainsEdge("a = " + i, "return a;", methodPdg);
+        }
+        assertContainsEdge("a = -1", "return a;", methodPdg);
+    }
+
+    @Test(timeout = 60_000)
+    public void testTryCatchRegion() throws IOException {
+        StringBuilder source = new StringBuilder("public class Region {\n    int region(String s) {\n        int a = 0;\n");
+        for (int i = 0; i < BRANCHES; i++) {
+            source.append("        try {\n            a = Integer.parseInt(s) + ").append(i).append(";\n")
+                    .append("        } catch (NumberFormatException e) {\n            a = ").append(i).append(";\n        }\n");
+        }
+        source.append("        return a;\n    }\n}\n");
+
+        MethodPdg methodPdg = buildPdg("Region", source.toString(), "region");
+        for (int i = 1; i < BRANCHES; i++) {
+            assertContainsEdge("a = " + (i - 1), "a = Integer.parseInt(s) + " + i, methodPdg);
+        }
+        assertContainsEdge("a = " + (BRANCHES - 1), "return a;", methodPdg);
+    }
+
+    private MethodPdg buildPdg(final String className, final String source, final String methodName) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(className + ".java");
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        FileProcessor processor = new PdgExtractor().compileFile(file.toString(), folder.getRoot().toString(), false, "", "");
+        return new PdgBuilder().buildPdg(processor, processor.getMethod(methodName));
+    }
+}
@@ -0,0 +1,80 @@
+package tests;
+
+import org.checkerframework.flexeme.bench.CorpusRunner;
+import org.checkerframework.flexeme.metrics.Phase;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class CorpusRunnerTest {
+    private static final List<String> FILES = Arrays.asList("src/test/resources/Calc.java",
+            "src/test/resources/Loops.java", "src/test/resources/Conditional.java", "src/test/resources/Switches.java");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testListFiles() throws IOException {
+        Path list = folder.getRoot().toPath().resolve("files.txt");
+        Files.write(list, Arrays.asList(FILES.get(0), "", FILES.get(1)), StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList(FILES.get(0), FILES.get(1), FILES.get(2)),
+                CorpusRunner.listFiles(Arrays.asList(list.toString(), FILES.get(2))));
+
+        List<String> resources = CorpusRunner.listFiles(List.of("src/test/resources"));
+        assertTrue(resources.containsAll(FILES));
+        assertTrue(resources.stream().allMatch(file -> file.endsWith(".java")));
+    }
+
+    @Test
+    public void testRun() throws IOException, InterruptedException {
+        Path broken = folder.getRoot().toPath().resolve("Broken.java");
+        Files.write(broken, List.of("class Broken {"), StandardCharsets.UTF_8);
+
+        CorpusRunner runner = new CorpusRunner();
+        runner.setWorkers(2);
+        runner.setSlowest(2);
+        List<String> files = new ArrayList<>(FILES);
+        files.add(broken.toString());
+        CorpusRunner.Result result = runner.run(files);
+
+        assertEquals(FILES.size(), result.getFiles());
+        assertEquals(1, result.getFailures());
+        assertTrue(result.getFilesPerSecond() > 0);
+        assertTrue(result.getLatencyPercentile(50) > 0);
+        assertTrue(result.getLatencyPercentile(50) <= result.getLatencyPercentile(95));
+        assertTrue(result.getLatencyPercentile(99) <= result.getLatencyPercentile(100));
+        assertTrue(result.getPeakHeapBytes() > 0);
+
+        assertEquals(2, result.getSlowest().size());
+        CorpusRunner.FileResult slowest = result.getSlowest().get(0);
+        assertEquals(result.getLatencyPercentile(100), slowest.getLatencyNanos());
+        assertTrue(slowest.getLatencyNanos() >= result.getSlowest().get(1).getLatencyNanos());
+        assertNotNull(slowest.getMetrics().get(Phase.COMPILE));
+        assertNotNull(slowest.getMetrics().get(Phase.DATAFLOW));
+        // The freezing is measured once per file, apart from the build of the PDGs measured once per method.
+        assertEquals(1, slowest.getMetrics().get(Phase.FREEZE).getCount());
+        for (final Phase phase : new Phase[]{Phase.ELEMENTS, Phase.CONTROL, Phase.DATAFLOW, Phase.NAMEFLOW}) {
+            assertEquals(phase.name(), slowest.getMetrics().getMethods().size(), slowest.getMetrics().get(phase).getCount());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        result.print(new PrintStream(out, true, "UTF-8"));
+        String report = out.toString("UTF-8");
+        assertTrue(report, report.contains("files: 4, failures: 1, workers: 2"));
+        assertTrue(report, report.contains(slowest.getFile()));
+    }
+}
@@ -0,0 +1,35 @@
+package tests;
+
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+
+import static tests.PdgUtils.assertSameEdges;
+
+/**
+ * Differential test checking that the bit-vector dataflow engine finds the same edges as the fixpoint analysis.
+ */
+@RunWith(Parameterized.class)
+public class DataflowEngineTest {
+    private final String file;
+
+    public DataflowEngineTest(final String file) {
+        this.file = file;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<String> files() {
+        return PdgUtils.testResources();
+    }
+
+    @Test
+    public void testSameDataEdges() {
+        PdgBuilder bitVector = new PdgBuilder();
+        bitVector.setDataflowEngine(PdgBuilder.DataflowEngine.BIT_VECTOR);
+        assertSameEdges(file, new PdgBuilder(), bitVector, PdgEdge.Type.DATA);
+    }
+}
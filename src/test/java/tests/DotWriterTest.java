@@ -0,0 +1,94 @@
+package tests;
+
+import org.checkerframework.flexeme.DotPrinter;
+import org.checkerframework.flexeme.DotWriter;
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.FilePdg;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+import org.checkerframework.flexeme.pdg.PdgNode;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DotWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFormat() {
+        FileProcessor processor = new PdgExtractor().compileFile("src/test/resources/Calc.java", "build/", false, "", "");
+        FilePdg filePdg = new PdgBuilder().buildPdgForFile(processor);
+        Set<String> lines = new HashSet<>(Arrays.asList(new DotPrinter().printDot(filePdg).split(System.lineSeparator())));
+
+        for (final MethodPdg graph : filePdg.getGraphs()) {
+            for (final PdgNode node : graph.nodes()) {
+                assertTrue(lines.contains(String.format("n%d [label=\"%s\", span=\"%d-%d\"];", node.getId(), node.toString().replace("\"", "'"), node.getStartLine(), node.getEndLine())));
+            }
+            for (final PdgEdge edge : graph.edges()) {
+                assertTrue(lines.contains(String.format("n%d -> n%d [key=%d, style=%s, color=%s];", edge.from.getId(), edge.to.getId(), edge.type.getKey(), edge.type.getStyle(), edge.type.getColor())));
+            }
+        }
+        assertTrue(lines.contains("digraph {"));
+        assertTrue(lines.contains("}"));
+    }
+
+    @Test
+    public void testChannel() throws IOException {
+        CompactFilePdg snapshot = new PdgExtractor().extractSnapshot("src/test/resources/Calc.java", "", "");
+
+        Path file = folder.getRoot().toPath().resolve("calc.dot");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             DotWriter writer = new DotWriter(channel)) {
+            for (int i = 0; i < snapshot.getGraphs().size(); i++) {
+                writer.writeGraph(snapshot.getGraphs().get(i));
+            }
+            writer.writeEdges();
+            for (int call = 0; call < snapshot.callCount(); call++) {
+                writer.writeCall(snapshot.getCaller(call), snapshot.getCallee(call));
+            }
+        }
+
+        assertEquals(new DotPrinter().printDot(snapshot), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStreamedBuild() throws IOException {
+        FileProcessor processor = new PdgExtractor().compileFile("src/test/resources/LocalMethodCalls.java", "build/", false, "", "");
+        String expected = new DotPrinter().printDot(new PdgBuilder().buildPdgForFile(processor));
+
+        for (boolean parallel : new boolean[]{false, true}) {
+            PdgBuilder builder = new PdgBuilder();
+            builder.setParallel(parallel);
+            Path file = folder.getRoot().toPath().resolve("streamed.dot");
+            try (DotWriter writer = new DotWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+                assertEquals(processor.getMethodsAst().size(), builder.buildPdgForFile(processor, writer));
+            }
+            assertEquals(expected, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+
+        Path file = folder.getRoot().toPath().resolve("run.dot");
+        new PdgExtractor().run("src/test/resources/LocalMethodCalls.java", "", "", file.toString());
+        assertEquals(expected, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        // The graph is written to a temporary file moved in place.
+        assertArrayEquals(new String[]{"run.dot", "streamed.dot"},
+                Arrays.stream(folder.getRoot().list()).sorted().toArray(String[]::new));
+    }
+}
@@ -0,0 +1,36 @@
+package tests;
+
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+
+import static tests.PdgUtils.assertSameEdges;
+
+/**
+ * Differential test checking that the fused analysis finds the same edges as the separate dataflow and name flow
+ * analyses.
+ */
+@RunWith(Parameterized.class)
+public class FusedAnalysisTest {
+    private final String file;
+
+    public FusedAnalysisTest(final String file) {
+        this.file = file;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<String> files() {
+        return PdgUtils.testResources();
+    }
+
+    @Test
+    public void testSameEdges() {
+        PdgBuilder fused = new PdgBuilder();
+        fused.setFusedAnalysis(true);
+        assertSameEdges(file, new PdgBuilder(), fused, PdgEdge.Type.DATA, PdgEdge.Type.NAME);
+    }
+}
@@ -0,0 +1,71 @@
+package tests;
+
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the analysis of files without generating class files.
+ */
+public class InMemoryCompilationTest {
+    private static FileProcessor processor;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() {
+        PdgExtractor extractor = new PdgExtractor(true);
+        processor = extractor.compileFile("src/test/resources/DataFlow.java", null, false, "", "");
+    }
+
+    @Test
+    public void testSameNodesAsCompilation() {
+        FileProcessor compiled = new PdgExtractor().compileFile("src/test/resources/DataFlow.java", "build/", false, "", "");
+        MethodPdg expected = new PdgBuilder().buildPdg(compiled, compiled.getMethod("exitStores"));
+        MethodPdg actual = new PdgBuilder().buildPdg(processor, processor.getMethod("exitStores"));
+
+        PdgUtils.assertEquals(expected.nodes().stream().map(Object::toString).collect(Collectors.toSet()), actual.nodes());
+        assertEquals(expected.edges().size(), actual.edges().size());
+    }
+
+    @Test
+    public void testLabelsAreNotDesugared() {
+        FileProcessor anonymous = new PdgExtractor(true).compileFile("src/test/resources/AnonymousMethods.java", null, false, "", "");
+        MethodPdg pdg = new PdgBuilder().buildPdg(anonymous, anonymous.getMethod("anonymousMethod"));
+
+        assertTrue(pdg.containsNode("Integer b = optX.get()"));
+    }
+
+    @Test
+    public void testNoClassFiles() throws IOException {
+        File source = folder.newFile("Empty.java");
+        Files.write(source.toPath(), "class Empty { void m() { int a = 1; } }".getBytes(StandardCharsets.UTF_8));
+
+        new PdgExtractor(true).compileFile(source.getPath(), null, false, "", "");
+
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCompilationError() throws IOException {
+        File source = folder.newFile("Broken.java");
+        Files.write(source.toPath(), "class Broken { void m() { int a = b; } }".getBytes(StandardCharsets.UTF_8));
+
+        new PdgExtractor(true).compileFile(source.getPath(), null, false, "", "");
+    }
+}
@@ -0,0 +1,118 @@
+package tests;
+
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.FilePdg;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.MethodPdgCache;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for reusing the PDGs of the unchanged methods between two versions of a file.
+ */
+public class IncrementalBuildTest {
+    private static final String V1 = "src/test/resources/incremental/v1/Incremental.java";
+    private static final String V2 = "src/test/resources/incremental/v2/Incremental.java";
+
+    private static MethodPdgCache cache;
+    private static int methodCount;
+    private static FilePdg incrementalPdg;
+    private static FilePdg fullPdg;
+
+    @BeforeClass
+    public static void setUp() {
+        cache = new MethodPdgCache(100);
+        PdgBuilder incrementalBuilder = new PdgBuilder();
+        incrementalBuilder.setMethodCache(cache);
+
+        FileProcessor v1 = new PdgExtractor().compileFile(V1, "build/", false, "", "");
+        methodCount = incrementalBuilder.buildPdgForFile(v1).getGraphs().size();
+
+        FileProcessor v2 = new PdgExtractor().compileFile(V2, "build/", false, "", "");
+        incrementalPdg = incrementalBuilder.buildPdgForFile(v2);
+        fullPdg = new PdgBuilder().buildPdgForFile(v2);
+    }
+
+    @Test
+    public void testOnlyChangedMethodRebuilt() {
+        // Every method of v1 is a miss, only `sum` is a miss in v2.
+        assertEquals(methodCount + 1, cache.getMisses());
+        assertEquals(methodCount - 1, cache.getHits());
+    }
+
+    @Test
+    public void testSameGraphsAsFullBuild() {
+        Map<String, MethodPdg> expected = bySignature(fullPdg);
+        Map<String, MethodPdg> actual = bySignature(incrementalPdg);
+        assertEquals(expected.keySet(), actual.keySet());
+
+        expected.forEach((signature, expectedPdg) -> {
+            MethodPdg actualPdg = actual.get(signature);
+            // The line spans of the unchanged methods are shifted in v2.
+            assertEquals(nodeStrings(expectedPdg), nodeStrings(actualPdg));
+            assertEquals(expectedPdg.edges().stream().map(Object::toString).collect(Collectors.toSet()),
+                    actualPdg.edges().stream().map(Object::toString).collect(Collectors.toSet()));
+        });
+    }
+
+    @Test
+    public void testShiftedSpans() {
+        MethodPdg greet = bySignature(incrementalPdg).get("greet[String]");
+        assertTrue(greet.containsNode("String greeting = \"Hello \" + name"));
+        greet.nodes().stream()
+                .filter(node -> node.toString().startsWith("String greeting"))
+                .forEach(node -> {
+                    assertEquals(23, node.getStartLine());
+                    assertEquals(24, node.getEndLine());
+                });
+    }
+
+    @Test
+    public void testCalleeThrowsChanged() {
+        // Only the throws clause of the callee changes, the tree of the caller is the same but not its CFG.
+        MethodPdgCache throwsCache = new MethodPdgCache(100);
+        PdgBuilder builder = new PdgBuilder();
+        builder.setMethodCache(throwsCache);
+        builder.buildPdgForFile(new PdgExtractor().compileFile("src/test/resources/incremental/v1/Throwing.java", "build/", false, "", ""));
+        builder.buildPdgForFile(new PdgExtractor().compileFile("src/test/resources/incremental/v2/Throwing.java", "build/", false, "", ""));
+        assertEquals(4, throwsCache.getMisses());
+        assertEquals(0, throwsCache.getHits());
+    }
+
+    @Test
+    public void testConfigurationInKey() {
+        MethodPdgCache configurationCache = new MethodPdgCache(100);
+        FileProcessor v1 = new PdgExtractor().compileFile(V1, "build/", false, "", "");
+        PdgBuilder builder = new PdgBuilder();
+        builder.setMethodCache(configurationCache);
+        builder.buildPdgForFile(v1);
+
+        PdgBuilder dependenceBuilder = new PdgBuilder();
+        dependenceBuilder.setMethodCache(configurationCache);
+        dependenceBuilder.setControlEdges(PdgBuilder.ControlEdges.DEPENDENCE);
+        dependenceBuilder.buildPdgForFile(v1);
+        assertEquals(0, configurationCache.getHits());
+
+        builder.buildPdgForFile(v1);
+        assertEquals(methodCount, configurationCache.getHits());
+    }
+
+    private static Set<String> nodeStrings(final MethodPdg pdg) {
+        // The ids depend on the order the methods are built in, only the labels and spans are compared.
+        return pdg.nodes().stream().map(node -> node + "@" + node.getStartLine() + "-" + node.getEndLine()).collect(Collectors.toSet());
+    }
+
+    private static Map<String, MethodPdg> bySignature(final FilePdg filePdg) {
+        return filePdg.getGraphs().stream().collect(Collectors.toMap(pdg -> pdg.getMethodName() + pdg.getParametersType(), Function.identity()));
+    }
+}
@@ -0,0 +1,103 @@
+package tests;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.checkerframework.flexeme.AnalysisBudget;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JfrEventsTest {
+    private static final String CALC = "src/test/resources/Calc.java";
+    private static final String PREFIX = "org.checkerframework.flexeme.";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEvents() throws IOException {
+        Path dump = folder.getRoot().toPath().resolve("extraction.jfr");
+        try (Recording recording = new Recording()) {
+            for (final String event : new String[]{"Compilation", "CfgBuild", "Analysis", "Serialization"}) {
+                recording.enable(PREFIX + event);
+            }
+            recording.start();
+            new PdgExtractor().run(CALC, "", "", folder.getRoot().toPath().resolve("pdg.dot").toString());
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> compilations = new ArrayList<>();
+        Set<String> cfgMethods = new HashSet<>();
+        Set<String> analyses = new HashSet<>();
+        List<RecordedEvent> serializations = new ArrayList<>();
+        for (final RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            switch (event.getEventType().getName()) {
+                case PREFIX + "Compilation":
+                    compilations.add(event);
+                    break;
+                case PREFIX + "CfgBuild":
+                    assertTrue(event.getString("file").endsWith("Calc.java"));
+                    assertTrue(event.getInt("blocks") > 0);
+                    cfgMethods.add(event.getString("method"));
+                    break;
+                case PREFIX + "Analysis":
+                    assertTrue(event.getString("file").endsWith("Calc.java"));
+                    assertTrue(event.getLong("transfers") > 0);
+                    analyses.add(event.getString("analysis") + " " + event.getString("method"));
+                    break;
+                case PREFIX + "Serialization":
+                    serializations.add(event);
+                    break;
+                default:
+            }
+        }
+
+        assertEquals(1, compilations.size());
+        assertEquals(CALC, compilations.get(0).getString("files"));
+        assertTrue(compilations.get(0).getBoolean("succeeded"));
+        assertFalse(compilations.get(0).getBoolean("inMemory"));
+
+        assertTrue(cfgMethods.contains("Calc.add(int,int)"));
+        assertTrue(analyses.contains("DATAFLOW Calc.add(int,int)"));
+        assertTrue(analyses.contains("NAMEFLOW Calc.add(int,int)"));
+
+        assertEquals(1, serializations.size());
+        assertEquals(CALC, serializations.get(0).getString("file"));
+        assertEquals("dot", serializations.get(0).getString("format"));
+    }
+
+    @Test
+    public void testAnalysisOverBudget() throws IOException {
+        Path dump = folder.getRoot().toPath().resolve("extraction.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PREFIX + "Analysis");
+            recording.start();
+            PdgExtractor extractor = new PdgExtractor();
+            extractor.setAnalysisBudget(new AnalysisBudget(0, 10, 0));
+            extractor.extract("src/test/resources/DoesNotTerminate.java", "", "");
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        // The analysis stopped by the budget is reported, the next one is not run.
+        List<RecordedEvent> analyses = RecordingFile.readAllEvents(dump);
+        assertEquals(1, analyses.size());
+        assertEquals("DATAFLOW", analyses.get(0).getString("analysis"));
+        assertEquals("TRANSFERS", analyses.get(0).getString("exceededLimit"));
+        assertEquals(-1, analyses.get(0).getLong("transfers"));
+    }
+}
@@ -0,0 +1,52 @@
+package tests;
+
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.checkerframework.flexeme.pdg.PdgNode;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LabelStyleTest {
+    static FileProcessor processor;
+
+    @BeforeClass
+    public static void setUp() {
+        processor = new PdgExtractor().compileFile("src/test/resources/Calc.java", "build/", false, "", "");
+    }
+
+    @Test
+    public void testPrettyLabels() {
+        final MethodPdg methodPdg = new PdgBuilder().buildPdg(processor, processor.getMethod("main"));
+
+        assertTrue(methodPdg.containsNode("sum = c.add(fst, snd)"));
+        assertTrue(containsLabelWith("c.add(3, 4)", methodPdg));
+        assertFalse(containsLabelWith("c.add(3,4)", methodPdg));
+    }
+
+    @Test
+    public void testSourceLabels() {
+        final PdgBuilder pdgBuilder = new PdgBuilder();
+        pdgBuilder.setLabelStyle(PdgBuilder.LabelStyle.SOURCE);
+        final MethodPdg methodPdg = pdgBuilder.buildPdg(processor, processor.getMethod("main"));
+
+        assertTrue(methodPdg.containsNode("sum = c.add(fst, snd)"));
+        assertTrue(methodPdg.containsNode("Entry"));
+        // The source is kept as written.
+        assertTrue(containsLabelWith("c.add(3,4)", methodPdg));
+        assertFalse(containsLabelWith("c.add(3, 4)", methodPdg));
+    }
+
+    private static boolean containsLabelWith(final String text, final MethodPdg methodPdg) {
+        for (final PdgNode node : methodPdg.nodes()) {
+            if (node.toString().contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
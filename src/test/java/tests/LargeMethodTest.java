@@ -0,0 +1,65 @@
+package tests;
+
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static tests.PdgUtils.assertContainsEdge;
+
+/**
+ * Tests the PDG of a method with thousands of statements, as found in generated sources.
+ */
+public class LargeMethodTest {
+    private static final int STATEMENTS = 5_000;
+    private static final int CALLS = 500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(timeout = 120_000)
+    public void testLargeMethod() throws IOException {
+        StringBuilder source = new StringBuilder("public class Large {\n    int large(int x) {\n        int v0 = x;\n");
+        for (int i = 1; i < STATEMENTS; i++) {
+            source.append("        int v").append(i).append(" = v").append(i - 1).append(" + 1;\n");
+        }
+        source.append("        return v").append(STATEMENTS - 1).append(";\n    }\n}\n");
+
+        MethodPdg methodPdg = buildPdg("Large", source.toString(), "large");
+
+        // The statements, the return, Entry and Exit.
+        assertEquals(STATEMENTS + 3, methodPdg.nodes().size());
+        assertContainsEdge("int v" + (STATEMENTS - 2) + " = v" + (STATEMENTS - 3) + " + 1", "int v" + (STATEMENTS - 1) + " = v" + (STATEMENTS - 2) + " + 1", methodPdg);
+    }
+
+    @Test(timeout = 120_000)
+    public void testLongCallChain() throws IOException {
+        StringBuilder chain = new StringBuilder("new StringBuilder()");
+        for (int i = 0; i < CALLS; i++) {
+            chain.append(".append(").append(i).append(")");
+        }
+        String source = "public class Chain {\n    String chain() {\n        String s = " + chain + ".toString();\n        return s;\n    }\n}\n";
+
+        MethodPdg methodPdg = buildPdg("Chain", source, "chain");
+
+        // The whole chain is a single PDG element.
+        assertContainsEdge("Entry", "String s = " + chain + ".toString()", methodPdg);
+        assertContainsEdge("String s = " + chain + ".toString()", "return s;", methodPdg);
+    }
+
+    private MethodPdg buildPdg(final String className, final String source, final String methodName) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(className + ".java");
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        FileProcessor processor = new PdgExtractor().compileFile(file.toString(), folder.getRoot().toString(), false, "", "");
+        return new PdgBuilder().buildPdg(processor, processor.getMethod(methodName));
+    }
+}
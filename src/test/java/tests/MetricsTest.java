@@ -0,0 +1,86 @@
+package tests;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.metrics.ExtractionMetrics;
+import org.checkerframework.flexeme.metrics.Phase;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+    private static final String CALC = "src/test/resources/Calc.java";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReport() throws IOException {
+        PdgExtractor extractor = new PdgExtractor();
+        extractor.setMetricsReport(true);
+        Path pdg = folder.getRoot().toPath().resolve("pdg.dot");
+        extractor.run(CALC, "", "", pdg.toString());
+
+        Path report = folder.getRoot().toPath().resolve("pdg.metrics.json");
+        assertTrue(Files.exists(report));
+        JsonObject metrics;
+        try (Reader in = Files.newBufferedReader(report, StandardCharsets.UTF_8)) {
+            metrics = JsonParser.parseReader(in).getAsJsonObject();
+        }
+
+        JsonObject phases = metrics.getAsJsonObject("phases");
+        for (final Phase phase : new Phase[]{Phase.COMPILE, Phase.CFG, Phase.ELEMENTS, Phase.CONTROL, Phase.DATAFLOW, Phase.NAMEFLOW, Phase.CALLS, Phase.FREEZE, Phase.OUTPUT}) {
+            assertTrue(phase.name(), phases.has(phase.name()));
+            assertTrue(phases.getAsJsonObject(phase.name()).get("count").getAsLong() > 0);
+        }
+        assertFalse(phases.has(Phase.FUSED.name()));
+        // The javac task builds the CFGs.
+        assertTrue(phases.getAsJsonObject("COMPILE").get("wallNanos").getAsLong() >= phases.getAsJsonObject("CFG").get("wallNanos").getAsLong());
+
+        Map<String, JsonObject> methods = new HashMap<>();
+        long nodes = 0;
+        for (final JsonElement method : metrics.getAsJsonArray("methods")) {
+            methods.put(method.getAsJsonObject().get("name").getAsString(), method.getAsJsonObject());
+            nodes += method.getAsJsonObject().get("nodes").getAsLong();
+        }
+        JsonObject add = methods.get("Calc.add(int,int)");
+        assertTrue(add.get("nodes").getAsInt() > 0);
+        assertTrue(add.get("edges").getAsInt() > 0);
+        assertTrue(add.get("cfgBlocks").getAsInt() > 0);
+        assertTrue(add.get("dataflowTransfers").getAsLong() > 0);
+        assertTrue(add.get("nameFlowTransfers").getAsLong() > 0);
+        assertTrue(add.getAsJsonObject("phases").has(Phase.CFG.name()));
+        assertEquals(nodes, metrics.getAsJsonObject("totals").get("nodes").getAsLong());
+        assertEquals(methods.size(), metrics.getAsJsonObject("totals").get("methods").getAsInt());
+    }
+
+    @Test
+    public void testNoReport() {
+        PdgExtractor extractor = new PdgExtractor();
+        Path pdg = folder.getRoot().toPath().resolve("pdg.dot");
+        extractor.run(CALC, "", "", pdg.toString());
+        assertFalse(Files.exists(folder.getRoot().toPath().resolve("pdg.metrics.json")));
+    }
+
+    @Test
+    public void testReportPath() {
+        assertEquals("pdg.metrics.json", ExtractionMetrics.reportPath("pdg.dot"));
+        assertEquals("out/pdg.metrics.json", ExtractionMetrics.reportPath("out/pdg.bin"));
+        assertEquals("out.d/pdg.metrics.json", ExtractionMetrics.reportPath("out.d/pdg"));
+        assertEquals(".pdg.metrics.json", ExtractionMetrics.reportPath(".pdg"));
+    }
+}
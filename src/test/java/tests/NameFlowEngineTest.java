@@ -0,0 +1,35 @@
+package tests;
+
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+
+import static tests.PdgUtils.assertSameEdges;
+
+/**
+ * Differential test checking that the single-pass name flow finds the same edges as the fixpoint analysis.
+ */
+@RunWith(Parameterized.class)
+public class NameFlowEngineTest {
+    private final String file;
+
+    public NameFlowEngineTest(final String file) {
+        this.file = file;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<String> files() {
+        return PdgUtils.testResources();
+    }
+
+    @Test
+    public void testSameNameEdges() {
+        PdgBuilder singlePass = new PdgBuilder();
+        singlePass.setNameFlowEngine(PdgBuilder.NameFlowEngine.SINGLE_PASS);
+        assertSameEdges(file, new PdgBuilder(), singlePass, PdgEdge.Type.NAME);
+    }
+}
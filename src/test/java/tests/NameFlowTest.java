@@ -55,4 +55,14 @@ public class NameFlowTest {
         assertContainsEdge("int omega = w + z", "Entry", PdgEdge.Type.NAME, methodPdg); // for w
         assertContainsEdge("int omega = w + z", "Entry", PdgEdge.Type.NAME, methodPdg); // for z
     }
+
+    @Test
+    public void testRedeclared() {
+        final MethodPdg methodPdg = pdgBuilder.buildPdg(processor, processor.getMethod("redeclared"));
+
+        // A name declared twice points to its first declaration, whichever branch the analysis merged last.
+        assertEdgeCount(2, PdgEdge.Type.NAME, methodPdg);
+        assertContainsEdge("int x = y", "int y = 1", PdgEdge.Type.NAME, methodPdg);
+        assertContainsEdge("int z = y", "int y = 1", PdgEdge.Type.NAME, methodPdg);
+    }
 }
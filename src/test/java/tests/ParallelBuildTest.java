@@ -0,0 +1,90 @@
+package tests;
+
+import org.checkerframework.flexeme.DotPrinter;
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.FilePdg;
+import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.checkerframework.flexeme.pdg.PdgEdge;
+import org.checkerframework.flexeme.pdg.PdgNode;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for building the PDGs of the methods of a file in parallel.
+ */
+public class ParallelBuildTest {
+    private static FilePdg sequentialPdg;
+    private static FilePdg parallelPdg;
+
+    @BeforeClass
+    public static void setUp() {
+        FileProcessor processor = new PdgExtractor().compileFile("src/test/resources/LocalMethodCalls.java", "build/", false, "", "");
+        sequentialPdg = new PdgBuilder().buildPdgForFile(processor);
+
+        PdgBuilder parallelBuilder = new PdgBuilder();
+        parallelBuilder.setParallel(true);
+        parallelPdg = parallelBuilder.buildPdgForFile(processor);
+    }
+
+    @Test
+    public void testSameGraphs() {
+        Map<String, MethodPdg> sequential = bySignature(sequentialPdg);
+        Map<String, MethodPdg> parallel = bySignature(parallelPdg);
+        assertEquals(sequential.keySet(), parallel.keySet());
+
+        sequential.forEach((signature, expected) -> {
+            MethodPdg actual = parallel.get(signature);
+            PdgUtils.assertEquals(expected.nodes().stream().map(Object::toString).collect(Collectors.toSet()), actual.nodes());
+            assertEquals(edgeStrings(expected.edges()), edgeStrings(actual.edges()));
+        });
+    }
+
+    @Test
+    public void testSameLocalCalls() {
+        assertEquals(edgeStrings(sequentialPdg.getLocalCalls()), edgeStrings(parallelPdg.getLocalCalls()));
+        assertTrue(parallelPdg.containsCall("LocalMethodCalls.local()", "int a = bar(1, 2)", "LocalMethodCalls.bar(int,int)"));
+    }
+
+    @Test
+    public void testNodeIdsUniqueInFile() {
+        Set<Long> ids = new HashSet<>();
+        int nodes = 0;
+        for (MethodPdg graph : parallelPdg.getGraphs()) {
+            for (PdgNode node : graph.nodes()) {
+                ids.add(node.getId());
+                nodes++;
+            }
+        }
+        assertEquals(nodes, ids.size());
+    }
+
+    @Test
+    public void testDeterministicOutput() {
+        FileProcessor processor = new PdgExtractor().compileFile("src/test/resources/AllLanguageFeatures.java", "build/", false, "", "");
+        String expected = new DotPrinter().printDot(new PdgBuilder().buildPdgForFile(processor));
+        for (int i = 0; i < 3; i++) {
+            PdgBuilder parallelBuilder = new PdgBuilder();
+            parallelBuilder.setParallel(true);
+            assertEquals(expected, new DotPrinter().printDot(parallelBuilder.buildPdgForFile(processor)));
+        }
+    }
+
+    private static Map<String, MethodPdg> bySignature(final FilePdg filePdg) {
+        return filePdg.getGraphs().stream().collect(Collectors.toMap(pdg -> pdg.getMethodName() + pdg.getParametersType(), Function.identity()));
+    }
+
+    private static Set<String> edgeStrings(final Set<PdgEdge> edges) {
+        return edges.stream().map(Object::toString).collect(Collectors.toSet());
+    }
+}
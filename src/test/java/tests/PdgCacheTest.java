@@ -0,0 +1,118 @@
+package tests;
+
+import org.checkerframework.flexeme.AnalysisBudget;
+import org.checkerframework.flexeme.PdgCache;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the on-disk cache of the PDGs.
+ */
+public class PdgCacheTest {
+    private static final String FILE = "src/test/resources/DataFlow.java";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        PdgCache cache = new PdgCache(folder.newFolder("cache").toPath(), 1 << 20);
+        String key = cache.key(FILE, "", "", "");
+        assertNull(cache.get(key));
+
+        cache.put(key, "digraph {}");
+        assertEquals("digraph {}", cache.get(key));
+
+        // The entries are shared with the other instances on the same directory.
+        assertEquals("digraph {}", new PdgCache(folder.getRoot().toPath().resolve("cache"), 1 << 20).get(key));
+    }
+
+    @Test
+    public void testKeyDependsOnContentNotPath() throws IOException {
+        PdgCache cache = new PdgCache(folder.newFolder("cache").toPath(), 1 << 20);
+        File copy = folder.newFile("Copy.java");
+        Files.copy(new File(FILE).toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(cache.key(FILE, "", "", ""), cache.key(copy.getPath(), "", "", ""));
+
+        Files.write(copy.toPath(), "// changed".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertNotEquals(cache.key(FILE, "", "", ""), cache.key(copy.getPath(), "", "", ""));
+        assertNotEquals(cache.key(FILE, "", "", ""), cache.key(FILE, "source=11", "", ""));
+        assertNotEquals(cache.key(FILE, "", "", ""), cache.key(FILE, "", "", copy.getPath()));
+    }
+
+    @Test
+    public void testKeyDependsOnSourcePath() throws IOException {
+        PdgCache cache = new PdgCache(folder.newFolder("cache").toPath(), 1 << 20);
+        File sourcePath = folder.newFolder("src");
+        File dependency = new File(sourcePath, "Dependency.java");
+        Files.write(dependency.toPath(), "class Dependency {}".getBytes(StandardCharsets.UTF_8));
+        String key = cache.key(FILE, "", sourcePath.getPath(), "");
+        assertEquals(key, cache.key(FILE, "", sourcePath.getPath(), ""));
+
+        Files.write(dependency.toPath(), "class Dependency { int x; }".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(key, cache.key(FILE, "", sourcePath.getPath(), ""));
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        Path directory = folder.newFolder("cache").toPath();
+        PdgCache cache = new PdgCache(directory, 1000);
+        String pdg = new String(new char[100]).replace('\0', 'x');
+        for (int i = 0; i < 50; i++) {
+            cache.put(String.format("%064d", i), pdg);
+        }
+
+        assertTrue(size(directory) <= 1000);
+    }
+
+    @Test
+    public void testExtractorUsesCache() throws IOException {
+        PdgCache cache = new PdgCache(folder.newFolder("cache").toPath(), 1 << 20);
+        PdgExtractor extractor = new PdgExtractor();
+        extractor.setCache(cache);
+
+        String dot = extractor.extract(FILE, "", "");
+        assertEquals(dot, extractor.extract(FILE, "", ""));
+
+        // A hit does not compile the file again.
+        cache.put(extractor.cacheKey(FILE, "", ""), "digraph {}");
+        assertEquals("digraph {}", extractor.extract(FILE, "", ""));
+    }
+
+    @Test
+    public void testExceededBudgetNotCached() throws IOException {
+        PdgCache cache = new PdgCache(folder.newFolder("cache").toPath(), 1 << 20);
+        PdgExtractor extractor = new PdgExtractor();
+        extractor.setCache(cache);
+        extractor.setAnalysisBudget(new AnalysisBudget(0, 10, 0));
+
+        String file = "src/test/resources/DoesNotTerminate.java";
+        assertTrue(extractor.extract(file, "", "").contains("budget_exceeded"));
+        assertNull(cache.get(extractor.cacheKey(file, "", "")));
+        extractor.extract(List.of(file), "", "");
+        assertNull(cache.get(extractor.cacheKey(file, "", "")));
+    }
+
+    private static long size(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package tests;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.PdgServer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the long-running mode of the PDG extractor.
+ */
+public class PdgServerTest {
+
+    @Test
+    public void testRequests() throws IOException {
+        final String requests = "{\"id\": 1, \"file\": \"src/test/resources/Conditional.java\", \"sourcePath\": \"\", \"classPath\": \"\"}\n"
+                + "\n"
+                + "{\"id\": \"b\", \"files\": [\"src/test/resources/Conditional.java\", \"src/test/resources/Loops.java\"]}\n"
+                + "{\"id\": 3, \"file\": \"src/test/resources/DoesNotExist.java\"}\n"
+                + "not json\n";
+
+        final StringWriter out = new StringWriter();
+        new PdgServer(new PdgExtractor()).serve(new StringReader(requests), out);
+
+        final String[] responses = out.toString().split(System.lineSeparator());
+        assertEquals(4, responses.length);
+
+        final JsonObject single = JsonParser.parseString(responses[0]).getAsJsonObject();
+        assertEquals(1, single.get("id").getAsInt());
+        assertEquals("ok", single.get("status").getAsString());
+        assertTrue(single.get("dot").getAsString().startsWith("digraph {"));
+
+        final JsonObject batch = JsonParser.parseString(responses[1]).getAsJsonObject();
+        assertEquals("b", batch.get("id").getAsString());
+        assertEquals("ok", batch.get("status").getAsString());
+        assertEquals(2, batch.getAsJsonObject("dots").size());
+
+        final JsonObject missingFile = JsonParser.parseString(responses[2]).getAsJsonObject();
+        assertEquals(3, missingFile.get("id").getAsInt());
+        assertEquals("error", missingFile.get("status").getAsString());
+
+        final JsonObject malformed = JsonParser.parseString(responses[3]).getAsJsonObject();
+        assertEquals("error", malformed.get("status").getAsString());
+    }
+}
@@ -1,12 +1,23 @@
 package tests;
 
+import com.sun.source.tree.MethodTree;
+import org.checkerframework.flexeme.FileProcessor;
+import org.checkerframework.flexeme.PdgExtractor;
 import org.checkerframework.flexeme.pdg.MethodPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
 import org.checkerframework.flexeme.pdg.PdgEdge;
 import org.checkerframework.flexeme.pdg.PdgNode;
 import org.junit.Assert;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertTrue;
 
@@ -14,6 +25,44 @@ import static org.junit.Assert.assertTrue;
  * Utility class testing PDGs.
  */
 public class PdgUtils {
+    /**
+     * Returns the Java files of the test resources, for the tests comparing two ways of building the PDGs.
+     * @return the paths of the files, sorted
+     */
+    public static List<String> testResources() {
+        try (Stream<Path> paths = Files.walk(Paths.get("src/test/resources"))) {
+            return paths.map(Path::toString).filter(path -> path.endsWith(".java")).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compiles a file of the test resources and asserts that two builders find the same edges of the given types in each
+     * of its methods.
+     * @param file the file to compile
+     * @param expected the builder of the expected PDGs
+     * @param actual the builder of the actual PDGs
+     * @param types the types of the edges to compare
+     */
+    public static void assertSameEdges(final String file, final PdgBuilder expected, final PdgBuilder actual, final PdgEdge.Type... types) {
+        final FileProcessor processor = new PdgExtractor().compileFile(file, "build/", false, "src/test/resources", "src/test/resources");
+        for (final MethodTree method : processor.getMethodsAst()) {
+            final MethodPdg expectedPdg = expected.buildPdg(processor, method);
+            final MethodPdg actualPdg = actual.buildPdg(processor, method);
+            for (final PdgEdge.Type type : types) {
+                Assert.assertEquals(method.getName() + " " + type, edges(expectedPdg, type), edges(actualPdg, type));
+            }
+        }
+    }
+
+    private static Set<String> edges(final MethodPdg pdg, final PdgEdge.Type type) {
+        return pdg.edges().stream()
+                .filter(edge -> edge.type == type)
+                .map(edge -> edge + " " + edge.from.getStartLine() + "-" + edge.to.getStartLine())
+                .collect(Collectors.toSet());
+    }
+
     /**
      * Asserts that the PDG has exactly the given nodes.
      * @param expectedNodes the list of expected nodes, given as strings. The order of the nodes does not matter
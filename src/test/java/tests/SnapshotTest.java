@@ -0,0 +1,57 @@
+package tests;
+
+import org.checkerframework.flexeme.DotPrinter;
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.CompactPdg;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotTest {
+    private static final String CALC = "src/test/resources/Calc.java";
+
+    @Test
+    public void testSnapshot() {
+        CompactFilePdg snapshot = new PdgExtractor().extractSnapshot(CALC, "", "");
+
+        Set<String> methods = new HashSet<>();
+        for (final CompactPdg graph : snapshot.getGraphs()) {
+            methods.add(graph.getQualifiedName());
+        }
+        assertTrue(methods.contains("Calc.add(int,int)"));
+        assertTrue(methods.contains("Calc.main(java.lang.String[])"));
+
+        // main calls add from three statements.
+        assertEquals(3, snapshot.callCount());
+    }
+
+    @Test
+    public void testSameDot() {
+        PdgExtractor extractor = new PdgExtractor();
+        Set<String> dot = lines(extractor.extract(CALC, "", ""));
+        assertEquals(dot, lines(new DotPrinter().printDot(extractor.extractSnapshot(CALC, "", ""))));
+
+        Map<String, CompactFilePdg> snapshots = extractor.extractSnapshots(List.of(CALC), "", "");
+        assertEquals(dot, lines(new DotPrinter().printDot(snapshots.get(CALC))));
+    }
+
+    /**
+     * Returns the lines of a DOT graph, without the cluster numbers that depend on the order of the methods.
+     */
+    private static Set<String> lines(final String dot) {
+        Set<String> lines = new HashSet<>();
+        for (final String line : dot.split(System.lineSeparator())) {
+            if (!line.startsWith("subgraph cluster_")) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
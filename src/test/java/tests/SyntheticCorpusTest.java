@@ -0,0 +1,72 @@
+package tests;
+
+import org.checkerframework.flexeme.PdgExtractor;
+import org.checkerframework.flexeme.bench.ScalingHarness;
+import org.checkerframework.flexeme.bench.SyntheticMethodGenerator;
+import org.checkerframework.flexeme.metrics.Phase;
+import org.checkerframework.flexeme.pdg.CompactFilePdg;
+import org.checkerframework.flexeme.pdg.CompactPdg;
+import org.checkerframework.flexeme.pdg.PdgBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SyntheticCorpusTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGeneratedMethodsCompile() throws IOException {
+        SyntheticMethodGenerator generator = new SyntheticMethodGenerator();
+        generator.setStatements(60);
+        generator.setLoopDepth(2);
+        generator.setBranchFanOut(3);
+        generator.setLiveVariables(5);
+        generator.setTryCatchDensity(0.5);
+        generator.setSwitchCases(4);
+        assertEquals(generator.generate("Synthetic"), generator.generate("Synthetic"));
+
+        Path file = generator.write(folder.getRoot().toPath(), "Synthetic");
+        PdgExtractor extractor = new PdgExtractor(true);
+        CompactFilePdg filePdg = new PdgBuilder().buildPdgForFile(extractor.compileFile(file.toString(), null, false, "", "")).freeze();
+        assertEquals(1, filePdg.getGraphs().size());
+        CompactPdg run = filePdg.getGraphs().get(0);
+        assertEquals("run", run.getMethodName());
+        assertTrue(run.nodeCount() > 60);
+    }
+
+    @Test
+    public void testExponent() {
+        double[] sizes = {10, 20, 40, 80};
+        double[] values = new double[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            values[i] = 3 * sizes[i] * sizes[i];
+        }
+        assertEquals(2.0, ScalingHarness.exponent(sizes, values), 1e-9);
+    }
+
+    @Test
+    public void testHarness() throws IOException {
+        ScalingHarness harness = new ScalingHarness(new SyntheticMethodGenerator(), folder.getRoot().toPath());
+        harness.setRepetitions(1);
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        Map<Phase, Double> exponents = harness.run(ScalingHarness.Dimension.STATEMENTS, new int[]{20, 40},
+                new PrintStream(table, true, "UTF-8"));
+
+        assertTrue(exponents.containsKey(Phase.COMPILE));
+        assertTrue(exponents.containsKey(Phase.DATAFLOW));
+        String output = table.toString("UTF-8");
+        assertTrue(output, output.startsWith("statements"));
+        assertTrue(output, output.contains("exponent"));
+        assertEquals(4, output.split("\n").length);
+    }
+}
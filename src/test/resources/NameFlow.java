@@ -24,6 +24,16 @@ public class NameFlow {
         }
     }
 
+    void redeclared(boolean c) {
+        if (c) {
+            int y = 1;
+            int x = y;
+        } else {
+            int y = 2;
+            int z = y;
+        }
+    }
+
     int bar(int w, int z) {
         int omega = w + z;
         omega = omega + 1;
@@ -0,0 +1,21 @@
+class Incremental {
+    int sum(int[] values) {
+        int total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    int max(int a, int b) {
+        if (a > b) {
+            return a;
+        }
+        return b;
+    }
+
+    String greet(String name) {
+        String greeting = "Hello " + name;
+        return greeting;
+    }
+}
@@ -0,0 +1,27 @@
+class Incremental {
+    int sum(int[] values) {
+        int total = 0;
+        for (int value : values) {
+            // Skip the negative values.
+            if (value > 0) {
+                total += value;
+            }
+        }
+        return total;
+    }
+
+    int max(int a, int b) {
+        if (a > b) {
+            return a;
+        }
+        return b;
+    }
+
+    // Formatting changes do not change the method.
+    String greet(String name)
+    {
+        String greeting = "Hello " +
+                name;
+        return greeting;
+    }
+}
@@ -0,0 +1,15 @@
+class Throwing {
+    int caller(int x) {
+        int y = 0;
+        try {
+            y = callee(x);
+        } catch (Exception e) {
+            y = -1;
+        }
+        return y;
+    }
+
+    int callee(int x) throws Exception {
+        return x + 1;
+    }
+}